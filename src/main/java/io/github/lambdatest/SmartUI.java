@@ -2,52 +2,191 @@ package io.github.lambdatest;
 
 import io.github.lambdatest.constants.Constants;
 import io.github.lambdatest.exceptions.SmartUIException;
+import io.github.lambdatest.models.DrainReport;
+import io.github.lambdatest.utils.CliResolver;
 import io.github.lambdatest.utils.LoggerUtil;
+import io.github.lambdatest.utils.ServerHealthMonitor;
+import io.github.lambdatest.utils.ServerLeaseManager;
+import io.github.lambdatest.utils.SmartUIClientContext;
+import io.github.lambdatest.utils.SmartUIMetrics;
+import io.github.lambdatest.utils.SmartUIUtil;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URL;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
  * Main SmartUI class for server management and snapshot functionality
  */
 public class SmartUI {
     private final SmartUIConfig config;
+    private final SmartUIClientContext clientContext;
     private Process serverProcess;
-    private boolean isServerRunning = false;
+    private volatile boolean isServerRunning = false;
+    private boolean attached = false;
+    private ServerLeaseManager leaseManager;
+    private ServerLeaseManager.Lease lease;
+    // Output file of a server started for a lease, null to stream the output into this JVM's log
+    private java.io.File serverLogFile;
+    private SmartUIServerPool pool;
+    private CountDownLatch readySignal;
+    private long startupTimeMillis = -1;
+    private long shutdownTimeMillis = -1;
+    private final AtomicInteger inFlightSnapshots = new AtomicInteger();
+    private final AtomicInteger failedSnapshots = new AtomicInteger();
+    private volatile DrainReport lastDrainReport;
+    private volatile boolean stopping = false;
+    // Resolved CLI binary, the plain command name until it has been resolved
+    private String cliCommand = SMARTUI_CLI_COMMAND;
+    private CompletableFuture<CliResolver.CliInstallation> cliResolution;
+    private volatile CompletableFuture<Void> warmUp;
 
     private static final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
-    private static final String SMARTUI_CLI_COMMAND = "smartui";
+    private static final String SMARTUI_CLI_COMMAND = CliResolver.CLI_COMMAND;
+    private static final CliResolver cliResolver = new CliResolver();
+    private static final ExecutorService warmUpExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smartui-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long SERVER_READY_TIMEOUT_MS = 20000;
+    private static final long READY_POLL_INITIAL_MS = 25;
+    private static final long READY_POLL_MAX_MS = 250;
+    private static final int PROBE_TIMEOUT_MS = 200;
+    private static final long PROCESS_EXIT_TIMEOUT_MS = 5000;
+    // Line printed by `smartui exec:start` once the server accepts requests
+    private static final Pattern READY_LINE = Pattern.compile(
+            "(?i)\\b(server|smartui)\\b.*\\b(started|listening|running|ready)\\b");
 
     public SmartUI(SmartUIConfig config) {
         this.config = config;
         if (config.getProjectToken() == null || config.getProjectToken().trim().isEmpty()) {
             throw new IllegalArgumentException("Project token is required");
         }
+        this.clientContext = new SmartUIClientContext(config.getServerAddress(), config.getProjectToken(),
+                config.getConnectTimeout(), config.getReadTimeout(), config.getHealthCheckInterval());
+        if (config.isCliPreinstall()) {
+            cliResolution = cliResolver.resolveAsync(config.getCliVersion(), config.isAutoInstall());
+        }
     }
 
-    public void startServer() throws SmartUIException {
+    /**
+     * Starts the server and prepares the first snapshot in the background, so that this overlaps with
+     * WebDriver session creation: the CLI is resolved and started (the CLI verifies the token, collects
+     * git metadata and creates the build as part of its startup), then the DOM serializer is fetched and
+     * cached and the pooled connection to the server is opened. {@link #takeSnapshot} waits for a pending
+     * warm-up, so the first snapshot runs at steady-state latency. While a warm-up is pending, calling this
+     * again returns the same future.
+     */
+    public synchronized CompletableFuture<Void> warmUpAsync() {
+        CompletableFuture<Void> pending = warmUp;
+        if (pending != null && !pending.isDone()) {
+            return pending;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        warmUp = future;
+        warmUpExecutor.execute(() -> {
+            try {
+                startServer();
+                warmUpConnections();
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Fetches and caches the DOM serializer, which also opens the pooled connection to the server.
+     */
+    void warmUpConnections() {
+        if (pool != null) {
+            pool.warmUpConnections();
+            return;
+        }
+        try {
+            new SmartUIUtil(clientContext).fetchDOMSerializer();
+        } catch (Exception e) {
+            log.warning("Failed to prefetch DOM serializer: " + e.getMessage());
+        }
+    }
+
+    private void awaitWarmUp() throws SmartUIException {
+        CompletableFuture<Void> pending = warmUp;
+        if (pending == null || isServerRunning) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (ExecutionException e) {
+            throw new SmartUIException("SmartUI warm-up failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmartUIException("Interrupted while waiting for SmartUI warm-up", e);
+        }
+    }
+
+    public synchronized void startServer() throws SmartUIException {
         if (isServerRunning) {
             log.info("Server is already running");
             return;
         }
+        // Snapshots were rejected since the drain of the previous stop
+        stopping = false;
+
+        if (config.getPoolSize() > 1) {
+            SmartUIServerPool serverPool = new SmartUIServerPool(config, config.getPoolSize());
+            long startedAt = System.nanoTime();
+            serverPool.start();
+            pool = serverPool;
+            isServerRunning = true;
+            startupTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            return;
+        }
 
-        if (!isSmartUICLIInstalled()) {
-            log.info("SmartUI CLI is not installed, installing it globally.");
-            installSmartUICLI();
+        if (config.isSharedServer()) {
+            startSharedServer();
+        } else if (!(config.isAttachMode() && tryAttach())) {
+            spawnServer();
         }
 
+        // The server just answered its healthcheck, from now on the heartbeat and snapshot outcomes track it
+        ServerHealthMonitor healthMonitor = clientContext.getHealthMonitor();
+        healthMonitor.recordSuccess();
+        healthMonitor.start();
+    }
+
+    private void spawnServer() throws SmartUIException {
+        resolveCliCommand();
+
         try {
+            long startedAt = System.nanoTime();
             startServerWithRetry();
 
             waitForServerReady();
 
             isServerRunning = true;
-            log.info("SmartUI server started successfully on " + config.getServerAddress());
+            startupTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            SmartUIMetrics.recordDuration(Constants.Metrics.SERVER_STARTUP_MS, startupTimeMillis);
+            log.info("SmartUI server started successfully on " + config.getServerAddress() + " in " + startupTimeMillis + " ms");
 
         } catch (Exception e) {
             isServerRunning = false;
@@ -55,18 +194,106 @@ public class SmartUI {
         }
     }
 
-    public void stopServer() throws SmartUIException {
+    /**
+     * Starts or joins the server shared by all JVMs on this machine through a {@link ServerLeaseManager}
+     * lease. A server left behind by crashed holders is adopted if it is still healthy.
+     */
+    private void startSharedServer() throws SmartUIException {
+        String leaseDirectory = config.getLeaseDirectory();
+        leaseManager = new ServerLeaseManager(
+                leaseDirectory != null && !leaseDirectory.trim().isEmpty() ? java.nio.file.Paths.get(leaseDirectory) : null,
+                config.getPort());
+        try {
+            lease = leaseManager.acquire(config.getBuildName(), this::pingServer, () -> {
+                if (!tryAttach()) {
+                    serverLogFile = leaseManager.getLogFile().toFile();
+                    try {
+                        spawnServer();
+                    } finally {
+                        serverLogFile = null;
+                    }
+                }
+                // From now on the lease owns the server, whoever started it
+                attached = false;
+                return serverProcess != null ? serverProcess.pid() : -1;
+            });
+            isServerRunning = true;
+            if (!lease.isStarted()) {
+                startupTimeMillis = 0;
+                log.info("Using shared SmartUI server on " + config.getServerAddress());
+            }
+        } catch (SmartUIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SmartUIException("Failed to start shared SmartUI server: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void stopServer() throws SmartUIException {
+        stopServer(true);
+    }
+
+    /**
+     * Stops the server. The CLI finalizes its build when stopped through {@code /stop}; a server of a pool
+     * that is not the one finalizing the shared build is instead terminated once its snapshots drained.
+     * @param finalizeBuild false to stop a server this instance started without finalizing its build
+     */
+    synchronized void stopServer(boolean finalizeBuild) throws SmartUIException {
         if (!isServerRunning) {
             log.info("Server is not running");
             return;
         }
 
+        if (pool != null) {
+            pool.stop();
+            pool = null;
+            isServerRunning = false;
+            return;
+        }
+
+        clientContext.getHealthMonitor().stop();
+        clientContext.clearDomSerializer();
+
+        if (lease != null) {
+            try {
+                drainSnapshots();
+                leaseManager.release(lease, () -> {
+                    if (!shutdownServer()) {
+                        log.warning("Server may not have stopped completely");
+                    }
+                });
+            } catch (Exception e) {
+                throw new SmartUIException("Failed to release shared SmartUI server: " + e.getMessage(), e);
+            } finally {
+                lease = null;
+                isServerRunning = false;
+            }
+            return;
+        }
+
+        if (attached) {
+            // The server belongs to whoever started it, only detach from it
+            log.info("Detaching from SmartUI server on " + config.getServerAddress() + ", leaving it running");
+            attached = false;
+            isServerRunning = false;
+            return;
+        }
+
         try {
             log.info("Stopping SmartUI server...");
+            drainSnapshots();
 
-            if (stopServerViaCLI(config.getPort())) {
+            if (!finalizeBuild && serverProcess != null && serverProcess.isAlive()) {
+                log.info("Terminating SmartUI server on " + config.getServerAddress() + " without finalizing its build");
+                if (!killProcess(serverProcess)) {
+                    log.warning("Server may not have stopped completely");
+                }
+                isServerRunning = false;
+                return;
+            }
+
+            if (shutdownServer()) {
                 isServerRunning = false;
-                log.info("SmartUI server stopped successfully via CLI");
             } else {
                 log.warning("Server may not have stopped completely");
                 isServerRunning = false;
@@ -79,11 +306,154 @@ public class SmartUI {
         }
     }
 
+    /**
+     * Stops accepting snapshots until the server is started again and waits up to
+     * {@link SmartUIConfig#getDrainTimeout()} ms for the ones in flight, so the server does not finalize the
+     * build while they are still being posted.
+     */
+    private DrainReport drainSnapshots() {
+        stopping = true;
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(config.getDrainTimeout());
+        int outstanding = inFlightSnapshots.get();
+        int failedBefore = failedSnapshots.get();
+        boolean timedOut = false;
+        synchronized (inFlightSnapshots) {
+            while (inFlightSnapshots.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    timedOut = true;
+                    break;
+                }
+                try {
+                    inFlightSnapshots.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    timedOut = true;
+                    break;
+                }
+            }
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        int abandoned = inFlightSnapshots.get();
+        int failed = Math.min(failedSnapshots.get() - failedBefore, outstanding);
+        DrainReport report = new DrainReport(Math.max(0, outstanding - abandoned - failed), failed, abandoned,
+                durationMillis, timedOut);
+        SmartUIMetrics.recordDuration(Constants.Metrics.SERVER_DRAIN_MS, durationMillis);
+        lastDrainReport = report;
+        if (abandoned > 0) {
+            log.warning("Stopping SmartUI server with " + abandoned + " snapshots still in flight: " + report);
+        } else if (outstanding > 0) {
+            log.info("Drained snapshots before stopping SmartUI server: " + report);
+        }
+        return report;
+    }
+
+    /**
+     * @return the outcome of draining snapshots during the last {@link #stopServer()}, or null
+     */
+    public DrainReport getLastDrainReport() {
+        return lastDrainReport;
+    }
+
+    /**
+     * Shuts the server down with a direct {@code POST /stop}. Falls back to {@code smartui exec:stop}, and
+     * finally to killing the process this instance started, only when the previous step failed.
+     * @return true if the server was stopped
+     */
+    private boolean shutdownServer() {
+        long startedAt = System.nanoTime();
+        boolean stopped = false;
+        try {
+            clientContext.getHttpClient().stopServer();
+            log.info("SmartUI server stopped successfully via HTTP");
+            stopped = true;
+        } catch (Exception e) {
+            log.warning("HTTP stop of SmartUI server failed, falling back to CLI: " + e.getMessage());
+        }
+
+        if (!stopped && stopServerViaCLI(config.getPort())) {
+            log.info("SmartUI server stopped successfully via CLI");
+            stopped = true;
+        }
+
+        if (!stopped && serverProcess != null && serverProcess.isAlive()) {
+            log.warning("Killing SmartUI server process " + serverProcess.pid());
+            stopped = killProcess(serverProcess);
+        }
+
+        if (stopped) {
+            shutdownTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            SmartUIMetrics.recordDuration(Constants.Metrics.SERVER_SHUTDOWN_MS, shutdownTimeMillis);
+        }
+        return stopped;
+    }
+
+    private static boolean killProcess(Process process) {
+        try {
+            process.descendants().forEach(ProcessHandle::destroy);
+            process.destroy();
+            if (!process.waitFor(PROCESS_EXIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+                return process.waitFor(PROCESS_EXIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return time in milliseconds the last shutdown of the server took, or -1 if this instance has not stopped one
+     */
+    public long getShutdownTimeMillis() {
+        return shutdownTimeMillis;
+    }
+
+    /**
+     * @return the connection settings snapshots of this instance are sent with
+     */
+    public SmartUIClientContext getClientContext() {
+        return clientContext;
+    }
+
+    /**
+     * @return the server pool when {@link SmartUIConfig#withPoolSize(int)} is above 1, null otherwise
+     */
+    public SmartUIServerPool getServerPool() {
+        return pool;
+    }
+
+    /**
+     * @return true if this instance attached to a server started by another process instead of spawning one
+     */
+    public boolean isAttached() {
+        return attached;
+    }
+
+    /**
+     * @return time in milliseconds from spawning the CLI until the server answered its healthcheck, or -1 if
+     * the server has not been started by this instance
+     */
+    public long getStartupTimeMillis() {
+        return startupTimeMillis;
+    }
+
     public void takeSnapshot(org.openqa.selenium.WebDriver driver, String snapshotName, Map<String, Object> options) throws SmartUIException {
+        awaitWarmUp();
+
         if (!isServerRunning) {
             throw new SmartUIException("Cannot take snapshot: SmartUI server is not running");
         }
 
+        if (pool != null) {
+            pool.takeSnapshot(driver, snapshotName, options);
+            return;
+        }
+
         if (!isServerHealthy()) {
             throw new SmartUIException("Cannot take snapshot: SmartUI server is not healthy");
         }
@@ -100,24 +470,33 @@ public class SmartUI {
             options = new HashMap<>();
         }
 
+        // Counted before checking the stop flag, so a concurrent drain either sees this snapshot or it sees the flag
+        inFlightSnapshots.incrementAndGet();
         try {
+            if (stopping) {
+                throw new SmartUIException("Cannot take snapshot: SmartUI server is stopping");
+            }
             log.info("Taking snapshot: " + snapshotName);
 
-            System.setProperty(Constants.SMARTUI_SERVER_ADDRESS, config.getServerAddress());
-
             String testType = config.getTestType();
-            if (testType != null && !testType.trim().isEmpty()){
-                SmartUISnapshot.smartuiSnapshot(driver, snapshotName, options, testType);
-            } else {
-                SmartUISnapshot.smartuiSnapshot(driver, snapshotName, options);
+            if (testType == null || testType.trim().isEmpty()) {
+                testType = "lambdatest-java-sdk";
             }
+            SmartUISnapshot.smartuiSnapshot(driver, snapshotName, options, testType, clientContext);
 
             log.info("Snapshot captured successfully: " + snapshotName);
 
         } catch (Exception e) {
+            failedSnapshots.incrementAndGet();
             String errorMsg = "Failed to take snapshot '" + snapshotName + "': " + e.getMessage();
             log.severe(errorMsg);
             throw new SmartUIException(errorMsg, e);
+        } finally {
+            if (inFlightSnapshots.decrementAndGet() == 0) {
+                synchronized (inFlightSnapshots) {
+                    inFlightSnapshots.notifyAll();
+                }
+            }
         }
     }
 
@@ -125,42 +504,24 @@ public class SmartUI {
         takeSnapshot(driver, snapshotName, new HashMap<>());
     }
     
-    private boolean isSmartUICLIInstalled() {
-        try {
-            ProcessBuilder processBuilder = new ProcessBuilder();
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                processBuilder.command("cmd", "/c", "where", SMARTUI_CLI_COMMAND);
-            } else {
-                processBuilder.command("which", SMARTUI_CLI_COMMAND);
-            }
-            
-            Process process = processBuilder.start();
-            int exitCode = process.waitFor();
-            return exitCode == 0;
-        } catch (Exception e) {
-            log.warning("Failed to check SmartUI CLI installation: " + e.getMessage());
-            return false;
-        }
-    }
-    
-    private void installSmartUICLI() throws SmartUIException {
-        log.info("SmartUI CLI not found. Attempting to install...");
+    /**
+     * Locates the CLI through the persisted {@link CliResolver} cache, installing it if it is missing and
+     * auto install is enabled. Waits for the background resolution started by the constructor, if any.
+     */
+    private String resolveCliCommand() throws SmartUIException {
         try {
-            ProcessBuilder processBuilder = new ProcessBuilder();
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                processBuilder.command("cmd", "/c", "npm", "install", "-g", "@lambdatest/smartui-cli@latest");
-            } else {
-                processBuilder.command("npm", "install", "-g", "@lambdatest/smartui-cli@latest");
-            }
-            
-            Process process = processBuilder.start();
-            int exitCode = process.waitFor();
-            
-            if (exitCode != 0) {
-                throw new SmartUIException("Failed to install SmartUI CLI. Exit code: " + exitCode);
-            }
-            
-            log.info("SmartUI CLI installed successfully");
+            CliResolver.CliInstallation installation = cliResolution != null
+                    ? cliResolution.get()
+                    : cliResolver.resolve(config.getCliVersion(), config.isAutoInstall());
+            cliCommand = installation.getPath();
+            log.fine("Using SmartUI CLI " + installation.getVersion() + " at " + cliCommand);
+            return cliCommand;
+        } catch (ExecutionException e) {
+            cliResolution = null;
+            throw new SmartUIException("Failed to install SmartUI CLI: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmartUIException("Interrupted while resolving SmartUI CLI", e);
         } catch (Exception e) {
             throw new SmartUIException("Failed to install SmartUI CLI: " + e.getMessage(), e);
         }
@@ -201,7 +562,7 @@ public class SmartUI {
                 command.add("/c");
             }
             
-            command.add(SMARTUI_CLI_COMMAND);
+            command.add(cliCommand);
             command.add("exec:start");
             command.add("-P");
             command.add(String.valueOf(config.getPort()));
@@ -225,49 +586,197 @@ public class SmartUI {
             processBuilder.command(command);
             processBuilder.redirectErrorStream(true);
             
-            Process process = processBuilder.start();
-            streamProcessOutput(process, "[CLI start] ");
-            
-            Thread.sleep(2000);
-            
-            if (!pingServer()) {
-                log.warning("CLI start command executed, but server is not responding yet");
+            if (serverLogFile != null) {
+                // Other lease holders keep using the server after this JVM exits, so its output must not
+                // depend on a pipe into this JVM
+                java.nio.file.Files.createDirectories(serverLogFile.toPath().getParent());
+                processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(serverLogFile));
+                readySignal = null;
+                serverProcess = processBuilder.start();
+                log.info("Writing output of the shared CLI server to " + serverLogFile);
             } else {
-                log.info("CLI start command executed successfully, server is responding");
+                readySignal = new CountDownLatch(1);
+                serverProcess = processBuilder.start();
+                streamProcessOutput(serverProcess, "[CLI start] ", readySignal);
             }
+            log.info("CLI start command executed, waiting for server to become ready");
             
         } catch (Exception e) {
             throw new SmartUIException("Failed to start server process: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Waits until the server answers its healthcheck. Wakes up as soon as the CLI prints its readiness line,
+     * and otherwise polls with a connect-only port probe, starting at {@value #READY_POLL_INITIAL_MS} ms and
+     * backing off to {@value #READY_POLL_MAX_MS} ms. The healthcheck is only sent once the port accepts
+     * connections.
+     */
     private void waitForServerReady() throws SmartUIException {
-        long startTime = System.currentTimeMillis();
-        long timeout = 20000; 
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SERVER_READY_TIMEOUT_MS);
+        long pollInterval = READY_POLL_INITIAL_MS;
         
-        while (System.currentTimeMillis() - startTime < timeout) {
-            if (pingServer()) {
-                log.info("Server is now ready and responding");
-                return;
-            }
-            try {
-                Thread.sleep(1000); 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new SmartUIException("Interrupted while waiting for server", e);
+        try {
+            while (System.nanoTime() < deadline) {
+                if (isPortOpen() && pingServer(PROBE_TIMEOUT_MS)) {
+                    log.info("Server is now ready and responding");
+                    return;
+                }
+                if (serverProcess != null && !serverProcess.isAlive() && serverProcess.exitValue() != 0) {
+                    throw new SmartUIException("CLI start command exited with code " + serverProcess.exitValue());
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                long wait = Math.max(1, Math.min(pollInterval, remaining));
+                if (readySignal != null && readySignal.getCount() > 0) {
+                    if (readySignal.await(wait, TimeUnit.MILLISECONDS)) {
+                        // The CLI just announced readiness, probe again right away and then at the fast rate
+                        log.fine("CLI reported server readiness");
+                        pollInterval = READY_POLL_INITIAL_MS;
+                        continue;
+                    }
+                } else {
+                    Thread.sleep(wait);
+                }
+                pollInterval = Math.min(pollInterval * 2, READY_POLL_MAX_MS);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmartUIException("Interrupted while waiting for server", e);
         }
         
-        throw new SmartUIException("Server did not become ready within 20 seconds");
+        if (pingServer()) {
+            log.info("Server is now ready and responding");
+            return;
+        }
+        throw new SmartUIException("Server did not become ready within " + (SERVER_READY_TIMEOUT_MS / 1000) + " seconds");
+    }
+    
+    /**
+     * Attaches to a server already listening on the configured address, if it is healthy and serves the
+     * configured build. Without a configured build name any healthy server is attached to.
+     * @return true if attached, false if no server is listening and one has to be spawned
+     * @throws SmartUIException if a server is listening but runs a different build, or does not report
+     * its build while a build name is configured
+     */
+    private boolean tryAttach() throws SmartUIException {
+        if (!isPortOpen()) {
+            log.fine("No SmartUI server listening on " + config.getServerAddress() + ", starting a new one");
+            return false;
+        }
+        JsonObject serverInfo = fetchServerInfo();
+        if (serverInfo == null) {
+            log.info("Port of " + config.getServerAddress() + " is in use but the SmartUI healthcheck failed, starting a new server");
+            return false;
+        }
+
+        String expectedBuild = config.getBuildName();
+        String serverBuild = findBuildName(serverInfo);
+        if (expectedBuild != null && !expectedBuild.trim().isEmpty()) {
+            if (serverBuild == null) {
+                throw new SmartUIException("SmartUI server on " + config.getServerAddress() + " does not report its build, so it " +
+                        "cannot be confirmed to run build '" + expectedBuild + "'. Stop it, use a different port or do not set a build name.");
+            } else if (!expectedBuild.equals(serverBuild)) {
+                throw new SmartUIException("SmartUI server on " + config.getServerAddress() + " is running build '" + serverBuild +
+                        "', expected '" + expectedBuild + "'. Stop it or use a different port.");
+            }
+        }
+
+        attached = true;
+        isServerRunning = true;
+        startupTimeMillis = 0;
+        log.info("Attached to running SmartUI server on " + config.getServerAddress() +
+                (serverBuild != null ? " (build '" + serverBuild + "')" : ""));
+        return true;
+    }
+
+    /**
+     * @return the healthcheck response of the server, or null if it did not answer with a JSON object
+     */
+    private JsonObject fetchServerInfo() {
+        try {
+            URL url = new URL(config.getServerAddress() + Constants.SmartUIRoutes.SMARTUI_HEALTHCHECK_ROUTE);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(PROBE_TIMEOUT_MS * 5);
+            connection.setReadTimeout(PROBE_TIMEOUT_MS * 5);
+            connection.setRequestProperty("User-Agent", "SmartUI-Java-SDK/1.0");
+            if (connection.getResponseCode() != 200) {
+                return null;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), java.nio.charset.StandardCharsets.UTF_8))) {
+                JsonElement element = JsonParser.parseReader(reader);
+                return element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+            }
+        } catch (Exception e) {
+            log.fine("SmartUI healthcheck probe failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the id of the build the server reports in its healthcheck, or null if it reports none
+     */
+    String fetchBuildId() {
+        JsonObject serverInfo = fetchServerInfo();
+        if (serverInfo == null) {
+            return null;
+        }
+        JsonObject source = serverInfo.has("data") && serverInfo.get("data").isJsonObject()
+                ? serverInfo.getAsJsonObject("data") : serverInfo;
+        if (source.has("buildId") && source.get("buildId").isJsonPrimitive()) {
+            return source.get("buildId").getAsString();
+        }
+        if (source.has("build") && source.get("build").isJsonObject()) {
+            JsonObject build = source.getAsJsonObject("build");
+            if (build.has("id") && build.get("id").isJsonPrimitive()) {
+                return build.get("id").getAsString();
+            }
+        }
+        return null;
+    }
+
+    private static String findBuildName(JsonObject serverInfo) {
+        JsonObject source = serverInfo.has("data") && serverInfo.get("data").isJsonObject()
+                ? serverInfo.getAsJsonObject("data") : serverInfo;
+        if (source.has("buildName") && source.get("buildName").isJsonPrimitive()) {
+            return source.get("buildName").getAsString();
+        }
+        if (source.has("build") && source.get("build").isJsonObject()) {
+            JsonObject build = source.getAsJsonObject("build");
+            if (build.has("name") && build.get("name").isJsonPrimitive()) {
+                return build.get("name").getAsString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Connect-only probe of the server port, much cheaper than a healthcheck while nothing is listening yet.
+     */
+    private boolean isPortOpen() {
+        try {
+            URL url = new URL(config.getServerAddress());
+            int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(url.getHost(), port), PROBE_TIMEOUT_MS);
+                return true;
+            }
+        } catch (Exception e) {
+            return false;
+        }
     }
     
     public boolean pingServer() {
+        return pingServer(5000);
+    }
+    
+    private boolean pingServer(int timeoutMs) {
         try {
-            URL url = new URL(config.getServerAddress() + "/healthcheck");
+            URL url = new URL(config.getServerAddress() + Constants.SmartUIRoutes.SMARTUI_HEALTHCHECK_ROUTE);
             HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
             
             connection.setRequestProperty("User-Agent", "SmartUI-Java-SDK/1.0");
             
@@ -283,7 +792,8 @@ public class SmartUI {
         log.warning("Performing forced cleanup...");
         try {
             if (serverProcess != null && serverProcess.isAlive()) {
-                serverProcess.destroyForcibly();
+                // The CLI runs the server in child processes
+                killProcess(serverProcess);
                 serverProcess = null;
             }
             isServerRunning = false;
@@ -292,13 +802,22 @@ public class SmartUI {
         }
     }
 
+    /**
+     * Reports the health tracked by the background heartbeat and the outcome of recent snapshots,
+     * without a request of its own. Use {@link #checkServerHealth()} to probe the server now.
+     */
     public boolean isServerHealthy() {
         try {
             if (!isServerRunning) {
                 return false;
             }
+
+            if (pool != null) {
+                return pool.getHealthyMemberCount() > 0;
+            }
             
-            if (!pingServer()) {
+            // Not isAvailable(), which would hand the trial request of an unhealthy server to this check
+            if (clientContext.getHealthMonitor().getState() == ServerHealthMonitor.State.UNHEALTHY) {
                 return false;
             }
             
@@ -315,6 +834,19 @@ public class SmartUI {
         }
     }
     
+    /**
+     * Probes the server now and updates the tracked health with the result.
+     */
+    public boolean checkServerHealth() {
+        if (!isServerRunning) {
+            return false;
+        }
+        if (pool != null) {
+            return pool.getHealthyMemberCount() > 0;
+        }
+        return clientContext.getHealthMonitor().check() && isServerHealthy();
+    }
+
     /**
      * Stop server using SmartUI CLI command
      * @param port The port where server is running
@@ -330,7 +862,7 @@ public class SmartUI {
                 stopCommand.add("/c");
             }
             
-            stopCommand.add(SMARTUI_CLI_COMMAND);
+            stopCommand.add(cliCommand);
             stopCommand.add("exec:stop");
             
             Map<String, String> env = stopProcessBuilder.environment();
@@ -414,12 +946,15 @@ public class SmartUI {
         return "******" + suffix;
     }
 
-    private void streamProcessOutput(Process process, String prefix) {
+    private void streamProcessOutput(Process process, String prefix, CountDownLatch readySignal) {
         Thread t = new Thread(() -> {
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     log.info(prefix + line);
+                    if (readySignal != null && readySignal.getCount() > 0 && READY_LINE.matcher(line).find()) {
+                        readySignal.countDown();
+                    }
                 }
             } catch (Exception ex) {
                 log.fine("Failed to read CLI output: " + ex.getMessage());
@@ -4,17 +4,44 @@ import com.google.gson.Gson;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.lambdatest.constants.Constants;
 import io.github.lambdatest.models.*;
+import io.github.lambdatest.utils.ByteBudget;
 import io.github.lambdatest.utils.FullPageScreenshotUtil;
 import io.github.lambdatest.utils.GitUtils;
+import io.github.lambdatest.utils.NetworkScheduler;
+import io.github.lambdatest.utils.ScreenshotUploadSpec;
 import io.github.lambdatest.utils.SmartUIUtil;
 import io.github.lambdatest.utils.ElementBoundingBox;
+import io.github.lambdatest.utils.FileShardCoordinator;
+import io.github.lambdatest.utils.ShardCoordinator;
+import io.github.lambdatest.utils.UploadJournal;
 import org.openqa.selenium.*;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import io.github.lambdatest.utils.LoggerUtil;
-
+import io.github.lambdatest.utils.SmartUIMetrics;
+
+/**
+ * Uploads app screenshots to a SmartUI build.
+ *
+ * <p>One instance can be shared by parallel sessions, e.g. one thread per device against the same build.
+ * {@link #smartuiAppSnapshot(WebDriver, String, Map)} keeps all of its state local to the call: it builds
+ * its own upload request, captures chunks into its own temporary directory, and uploads every chunk with
+ * its own copy of the request. The build is published once through an atomic reference, so snapshot
+ * threads read it without locking. {@link #start(Map)} and {@link #stop()} are meant to be called once,
+ * before and after the snapshots.
+ */
 public class SmartUIAppSnapshot {
     // Constants
     private static final String DEFAULT_TEST_TYPE = "app";
@@ -31,17 +58,52 @@ public class SmartUIAppSnapshot {
     private static final String OPTION_CROP_STATUS_BAR = "cropStatusBar";
     private static final String OPTION_IGNORE_BOXES = "ignoreBoxes";
     private static final String OPTION_SELECT_BOXES = "selectBoxes";
+    private static final String OPTION_LAZY_BUILD = "lazyBuild";
+    private static final String OPTION_SHARD_INDEX = "shardIndex";
+    private static final String OPTION_SHARD_TOTAL = "shardTotal";
+    private static final String OPTION_SHARD_RUN_ID = "shardRunId";
+    private static final String OPTION_BUILD_ID = "buildId";
+    private static final String OPTION_BUILD_NAME = "buildName";
+    private static final String OPTION_UPLOAD_JOURNAL = "uploadJournal";
+    private static final String OPTION_DRAIN_TIMEOUT = "drainTimeout";
+    private static final long DEFAULT_DRAIN_TIMEOUT_MS = 2 * 60 * 1000;
 
     private static final String BROWSER_IOS = "safari";
     private static final String BROWSER_ANDROID = "chrome";
     private static final String PLATFORM_IOS = "iOS";
     private static final String PLATFORM_ANDROID = "Android";
 
+    private static final ExecutorService warmUpExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smartui-app-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final Logger log = LoggerUtil.createLogger("lambdatest-java-app-sdk");
     private final SmartUIUtil util;
     private final Gson gson = new Gson();
-    private String projectToken;
-    private BuildData buildData;
+    private volatile String projectToken;
+    // Build of this session, published once and read lock-free by every snapshot thread
+    private final AtomicReference<BuildData> buildHandle = new AtomicReference<>();
+    // Pending warm-up, consumed by the next start()
+    private final AtomicReference<CompletableFuture<Void>> warmUp = new AtomicReference<>();
+    // Lazy build mode: the build is only created once the first screenshot is taken
+    private volatile boolean lazyBuild;
+    private volatile Map<String, String> lazyBuildOptions;
+    private volatile CompletableFuture<GitInfo> lazyGitInfo;
+    private final AtomicReference<CompletableFuture<BuildData>> lazyBuildCreation = new AtomicReference<>();
+    // Shard mode: this session is one shard of a run sharing a single build
+    private volatile ShardCoordinator shardCoordinator;
+    private volatile ShardSession shardSession;
+    // Upload journal mode: uploads are journaled and drained in the background, opened on first use
+    private volatile boolean uploadJournalEnabled;
+    private volatile UploadJournal uploadJournal;
+    // Drain protocol of stop(): snapshot calls in flight are waited for, new ones are rejected
+    private final AtomicInteger inFlightSnapshots = new AtomicInteger();
+    private final AtomicInteger failedSnapshots = new AtomicInteger();
+    private volatile boolean stopping;
+    private volatile long drainTimeoutMs = DEFAULT_DRAIN_TIMEOUT_MS;
+    private volatile DrainReport lastDrainReport;
 
     public SmartUIAppSnapshot() {
         this.util = new SmartUIUtil();
@@ -60,10 +122,99 @@ public class SmartUIAppSnapshot {
     }
 
     public void start(Map<String, String> options) throws Exception {
+        applySessionOptions(options);
+        CompletableFuture<Void> pending = warmUp.getAndSet(null);
+        if (pending != null) {
+            awaitWarmUp(pending);
+            return;
+        }
         initializeProjectToken(options);
+        resetBuildState();
+        startBuild(options);
+    }
+
+    /**
+     * Starts the session in the background so it overlaps with driver creation: git metadata is read and
+     * the build is created, joined in shard mode or prepared in lazy mode. The next {@link #start(Map)}
+     * waits for this future instead of repeating the work, and applies its own per-session options.
+     * @param options the same options {@link #start(Map)} accepts
+     */
+    public CompletableFuture<Void> warmUpAsync(Map<String, String> options) {
+        Map<String, String> buildOptions = options != null ? options : new HashMap<>();
+        CompletableFuture<Void> future;
+        try {
+            initializeProjectToken(buildOptions);
+            resetBuildState();
+
+            future = CompletableFuture.runAsync(() -> {
+                try {
+                    startBuild(buildOptions);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, warmUpExecutor);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        warmUp.set(future);
+        return future;
+    }
+
+    /**
+     * Applies the options that belong to each session rather than to its build, and accepts snapshots again.
+     */
+    private void applySessionOptions(Map<String, String> options) {
+        stopping = false;
+        drainTimeoutMs = parseDrainTimeout(options);
+        uploadJournalEnabled = Boolean.parseBoolean(getOptionOrEnv(options, OPTION_UPLOAD_JOURNAL, "SMARTUI_UPLOAD_JOURNAL"));
+    }
+
+    /**
+     * Forgets the build of a previous session, so that a reused instance never uploads to a finalized build.
+     */
+    private void resetBuildState() {
+        buildHandle.set(null);
+        shardSession = null;
+        lazyBuild = false;
+        lazyBuildOptions = null;
+        lazyGitInfo = null;
+        lazyBuildCreation.set(null);
+    }
+
+    private void startBuild(Map<String, String> options) throws Exception {
+        ShardSession shard = parseShardSession(options);
+        if (shard != null) {
+            startShard(shard, options);
+            return;
+        }
+        if (isLazyBuild(options)) {
+            startLazyBuild(options);
+            return;
+        }
         createBuild(options);
     }
 
+    public CompletableFuture<Void> warmUpAsync() {
+        return warmUpAsync(new HashMap<>());
+    }
+
+    private void awaitWarmUp(CompletableFuture<Void> pending) throws Exception {
+        try {
+            pending.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            // The warm-up ran the same steps as start(), which already logged and described the failure
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new Exception("Couldn't create smartui build: " + cause.getMessage(), cause);
+        }
+    }
+
     public void start() throws Exception {
         start(new HashMap<>());
     }
@@ -83,15 +234,173 @@ public class SmartUIAppSnapshot {
             Map<String, String> envVars = new HashMap<>(System.getenv());
             GitInfo git = GitUtils.getGitInfo(envVars);
             BuildResponse buildRes = util.build(git, this.projectToken, options);
-            this.buildData = buildRes.getData();
-            log.info("Build ID set: " + this.buildData.getBuildId() + " for build name: " + this.buildData.getName());
-            options.put("buildName", this.buildData.getName());
+            applyBuild(buildRes, options);
         } catch (Exception e) {
             log.severe("Couldn't create smartui build: " + e.getMessage());
             throw new Exception("Couldn't create smartui build: " + e.getMessage());
         }
     }
 
+    /**
+     * Sets the coordinator used in shard mode, by default a {@link FileShardCoordinator} on the
+     * directory from {@code SMARTUI_SHARD_DIR}.
+     */
+    public void setShardCoordinator(ShardCoordinator shardCoordinator) {
+        this.shardCoordinator = shardCoordinator;
+    }
+
+    /**
+     * Shard mode is enabled with the {@code shardTotal} and {@code shardIndex} options, or the
+     * {@code SMARTUI_SHARD_TOTAL} and {@code SMARTUI_SHARD_INDEX} environment variables. Shards of one
+     * run are identified by {@code shardRunId} ({@code SMARTUI_SHARD_RUN_ID}), defaulting to the build name.
+     * @return the shard of this session, or null if shard mode is not enabled
+     */
+    private ShardSession parseShardSession(Map<String, String> options) {
+        String total = getOptionOrEnv(options, OPTION_SHARD_TOTAL, "SMARTUI_SHARD_TOTAL");
+        if (total.isEmpty()) {
+            return null;
+        }
+        String index = getOptionOrEnv(options, OPTION_SHARD_INDEX, "SMARTUI_SHARD_INDEX");
+        String runId = getOptionOrEnv(options, OPTION_SHARD_RUN_ID, "SMARTUI_SHARD_RUN_ID");
+        if (runId.isEmpty()) {
+            runId = getOptionValue(options, OPTION_BUILD_NAME);
+        }
+        if (index.isEmpty() || runId.isEmpty()) {
+            throw new IllegalArgumentException("Shard mode requires a shard index and a shard run id or build name");
+        }
+        try {
+            return new ShardSession(runId, Integer.parseInt(index), Integer.parseInt(total),
+                    getOptionOrEnv(options, OPTION_BUILD_ID, "SMARTUI_BUILD_ID"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid shard index or total: " + index + " / " + total);
+        }
+    }
+
+    private void startShard(ShardSession shard, Map<String, String> options) throws Exception {
+        ShardCoordinator coordinator = shardCoordinator;
+        if (coordinator == null) {
+            coordinator = new FileShardCoordinator();
+            shardCoordinator = coordinator;
+        }
+        Map<String, String> buildOptions = options != null ? options : new HashMap<>();
+        try {
+            BuildData build = coordinator.joinBuild(shard.runId, shard.index, shard.total,
+                    () -> createShardBuild(shard, buildOptions));
+            applyBuild(build, buildOptions);
+            shardSession = shard;
+        } catch (Exception e) {
+            log.severe("Couldn't join smartui build: " + e.getMessage());
+            throw new Exception("Couldn't join smartui build: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the build shared by all shards, or uses the build id provided by the coordinator.
+     */
+    private BuildData createShardBuild(ShardSession shard, Map<String, String> options) throws Exception {
+        // The build name is deterministic so that every shard, and a rerun, refer to the same build
+        String buildName = getOptionValue(options, OPTION_BUILD_NAME);
+        if (buildName.isEmpty()) {
+            buildName = shard.runId;
+        }
+        if (!shard.providedBuildId.isEmpty()) {
+            BuildData provided = new BuildData();
+            provided.setBuildId(shard.providedBuildId);
+            provided.setName(buildName);
+            provided.setBaseline(false);
+            return provided;
+        }
+        Map<String, String> buildOptions = new HashMap<>(options);
+        buildOptions.put(OPTION_BUILD_NAME, buildName);
+        GitInfo git = GitUtils.getGitInfo(new HashMap<>(System.getenv()));
+        return util.build(git, projectToken, buildOptions).getData();
+    }
+
+    private String getOptionOrEnv(Map<String, String> options, String key, String envName) {
+        String value = getOptionValue(options, key);
+        if (value.isEmpty()) {
+            String env = System.getenv(envName);
+            value = env != null ? env.trim() : "";
+        }
+        return value;
+    }
+
+    /**
+     * Lazy build mode is enabled with the {@code lazyBuild} option or the {@code SMARTUI_LAZY_BUILD}
+     * environment variable.
+     */
+    private boolean isLazyBuild(Map<String, String> options) {
+        if (isValidOptionValue(options, OPTION_LAZY_BUILD)) {
+            return Boolean.parseBoolean(options.get(OPTION_LAZY_BUILD).trim());
+        }
+        String env = System.getenv("SMARTUI_LAZY_BUILD");
+        return env != null && Boolean.parseBoolean(env.trim());
+    }
+
+    private void startLazyBuild(Map<String, String> options) {
+        lazyBuildOptions = options != null ? options : new HashMap<>();
+        // Read git metadata now so that the first screenshot only waits for the build request
+        lazyGitInfo = CompletableFuture.supplyAsync(() -> GitUtils.getGitInfo(new HashMap<>(System.getenv())), warmUpExecutor);
+        lazyBuild = true;
+        log.info("Lazy build mode enabled, the build is created when the first screenshot is taken");
+    }
+
+    /**
+     * Starts creating the build in lazy mode, once. Screenshots are captured while it is in flight.
+     */
+    private CompletableFuture<BuildData> requestLazyBuild() {
+        CompletableFuture<BuildData> existing = lazyBuildCreation.get();
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<BuildData> creation = new CompletableFuture<>();
+        if (!lazyBuildCreation.compareAndSet(null, creation)) {
+            return lazyBuildCreation.get();
+        }
+        warmUpExecutor.execute(() -> {
+            try {
+                BuildResponse buildRes = util.build(lazyGitInfo.join(), projectToken, lazyBuildOptions);
+                applyBuild(buildRes, lazyBuildOptions);
+                creation.complete(buildRes.getData());
+            } catch (Throwable e) {
+                creation.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        return creation;
+    }
+
+    /**
+     * @return the build to upload to, waiting for a lazily created build if needed
+     */
+    private BuildData resolveBuildData() throws Exception {
+        if (!lazyBuild) {
+            return buildHandle.get();
+        }
+        try {
+            return requestLazyBuild().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            // The warm-up ran the same steps as start(), which already logged and described the failure
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new Exception("Couldn't create smartui build: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void applyBuild(BuildResponse buildRes, Map<String, String> options) {
+        applyBuild(buildRes.getData(), options);
+    }
+
+    private void applyBuild(BuildData buildData, Map<String, String> options) {
+        buildHandle.set(buildData);
+        log.info("Build ID set: " + buildData.getBuildId() + " for build name: " + buildData.getName());
+        options.put("buildName", buildData.getName());
+    }
+
     private String getProjectToken(Map<String, String> options) {
         // Check options first
         if (isValidOptionValue(options, Constants.PROJECT_TOKEN)) {
@@ -113,16 +422,35 @@ public class SmartUIAppSnapshot {
     }
 
     public void smartuiAppSnapshot(WebDriver driver, String screenshotName, Map<String, String> options) throws Exception {
+        // Counted before checking the stop flag, so a concurrent drain either sees this call or it sees the flag
+        inFlightSnapshots.incrementAndGet();
+        boolean accepted = false;
         try {
+            if (stopping) {
+                throw new IllegalStateException("the session is stopping");
+            }
+            accepted = true;
             SnapshotConfig config = parseSnapshotConfig(options);
             validateMandatoryParams(driver, screenshotName, config.deviceName);
+            if (lazyBuild) {
+                requestLazyBuild();
+            }
 
             UploadSnapshotRequest uploadRequest = createUploadRequest(driver, screenshotName, config);
             processScreenshotCapture(driver, screenshotName, config, uploadRequest, options);
 
         } catch (Exception e) {
+            if (accepted) {
+                failedSnapshots.incrementAndGet();
+            }
             log.severe(Constants.Errors.UPLOAD_SNAPSHOT_FAILED + " due to: " + e.getMessage());
             throw new Exception("Couldn't upload image to Smart UI due to: " + e.getMessage());
+        } finally {
+            if (inFlightSnapshots.decrementAndGet() == 0) {
+                synchronized (inFlightSnapshots) {
+                    inFlightSnapshots.notifyAll();
+                }
+            }
         }
     }
 
@@ -301,6 +629,7 @@ public class SmartUIAppSnapshot {
         request.setViewport(viewport);
         log.info("Viewport set to: " + viewport);
 
+        BuildData buildData = buildHandle.get();
         if (buildData != null) {
             request.setBuildId(buildData.getBuildId());
             request.setBuildName(buildData.getName());
@@ -374,20 +703,44 @@ public class SmartUIAppSnapshot {
     private void handleFullPageScreenshot(WebDriver driver, String screenshotName, SnapshotConfig config,
                                           UploadSnapshotRequest uploadRequest, int pageCount,
                                           Map<String, String> options) throws Exception {
-        FullPageScreenshotUtil fullPageCapture = new FullPageScreenshotUtil(driver, screenshotName, config.testType, config.preciseScroll);
-        SelectorData selectorData = extractSelectorsFromOptions(options);
-
-        Map<String, Object> result = fullPageCapture.captureFullPageScreenshot(
-                pageCount, selectorData.ignoreSelectors, selectorData.selectSelectors);
-
-        List<File> screenshots = getScreenshotsFromResult(result);
-        validateScreenshots(screenshots);
+        // Each call gets its own directory so that parallel sessions using the same screenshot name don't collide
+        String fileNamePrefix = screenshotName.replaceAll("[^A-Za-z0-9._-]", "_");
+        Path workDir = Files.createTempDirectory("smartui-" + fileNamePrefix + "-");
+        // Held from before the first capture until every chunk is uploaded or journaled
+        try (ByteBudget.Reservation captured = ByteBudget.getInstance().reserve(ByteBudget.SCREENSHOT,
+                FullPageScreenshotUtil.estimateCaptureBytes(driver))) {
+            FullPageScreenshotUtil fullPageCapture = new FullPageScreenshotUtil(driver, workDir.toFile(), fileNamePrefix,
+                    config.testType, config.preciseScroll);
+            SelectorData selectorData = extractSelectorsFromOptions(options);
+
+            Map<String, Object> result = fullPageCapture.captureFullPageScreenshot(
+                    pageCount, selectorData.ignoreSelectors, selectorData.selectSelectors, captured);
+
+            List<File> screenshots = getScreenshotsFromResult(result);
+            validateScreenshots(screenshots);
+
+            if (hasSelectors(selectorData)) {
+                setBoundingBoxesFromResult(uploadRequest, result);
+            }
 
-        if (hasSelectors(selectorData)) {
-            setBoundingBoxesFromResult(uploadRequest, result);
+            uploadScreenshots(screenshots, uploadRequest, captured);
+        } finally {
+            deleteWorkDirectory(workDir);
         }
+    }
 
-        uploadScreenshots(screenshots, uploadRequest);
+    private void deleteWorkDirectory(Path workDir) {
+        File[] files = workDir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    log.fine("Failed to delete screenshot chunk " + file);
+                }
+            }
+        }
+        if (!workDir.toFile().delete()) {
+            log.fine("Failed to delete screenshot directory " + workDir);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -412,33 +765,164 @@ public class SmartUIAppSnapshot {
         setBoundingBoxes(uploadRequest, ignoredElements, selectedElements);
     }
 
-    private void uploadScreenshots(List<File> screenshots, UploadSnapshotRequest uploadRequest) throws Exception {
-        if (screenshots.size() == 1) {
-            uploadSingleScreenshot(screenshots.get(0), uploadRequest);
+    private void uploadScreenshots(List<File> screenshots, UploadSnapshotRequest uploadRequest,
+                                   ByteBudget.Reservation captured) throws Exception {
+        // The build is bound only now, so that a lazily created build overlaps with the capture
+        BuildData build = resolveBuildData();
+        if (build != null) {
+            uploadRequest.setBuildId(build.getBuildId());
+            uploadRequest.setBuildName(build.getName());
+        }
+        if (uploadJournalEnabled) {
+            journalScreenshots(screenshots, uploadRequest, build, captured);
+        } else if (screenshots.size() == 1) {
+            uploadSingleScreenshot(screenshots.get(0), uploadRequest, build, captured);
         } else {
-            uploadMultipleScreenshots(screenshots, uploadRequest);
+            uploadMultipleScreenshots(screenshots, uploadRequest, build, captured);
         }
     }
 
-    private void uploadSingleScreenshot(File screenshot, UploadSnapshotRequest uploadRequest) throws Exception {
+    private void uploadSingleScreenshot(File screenshot, UploadSnapshotRequest uploadRequest, BuildData buildData,
+                                        ByteBudget.Reservation captured) throws Exception {
         uploadRequest.setFullPage("false");
-        util.uploadScreenshot(screenshot, uploadRequest, buildData);
+        util.uploadScreenshot(screenshot, ScreenshotUploadSpec.of(uploadRequest, buildData),
+                uploadRequest.getChunkCount(), uploadRequest.getIsLastChunk(), captured);
+    }
+
+    private void uploadMultipleScreenshots(List<File> screenshots, UploadSnapshotRequest uploadRequest,
+                                           BuildData buildData, ByteBudget.Reservation captured) throws Exception {
+        int totalScreenshots = screenshots.size();
+
+        // The fields shared by all chunks are encoded once, each chunk only adds its index and image
+        ScreenshotUploadSpec spec = ScreenshotUploadSpec.of(uploadRequest, buildData);
+        for (int i = 0; i < totalScreenshots; i++) {
+            util.uploadScreenshot(screenshots.get(i), spec, i, String.valueOf(i == totalScreenshots - 1), captured);
+        }
     }
 
-    private void uploadMultipleScreenshots(List<File> screenshots, UploadSnapshotRequest uploadRequest) throws Exception {
+    /**
+     * Hands the chunks to the upload journal, which uploads them in the background in order.
+     */
+    private void journalScreenshots(List<File> screenshots, UploadSnapshotRequest uploadRequest,
+                                    BuildData buildData, ByteBudget.Reservation captured) throws Exception {
+        UploadJournal journal = getUploadJournal();
         int totalScreenshots = screenshots.size();
+        for (int i = 0; i < totalScreenshots; i++) {
+            UploadSnapshotRequest chunkRequest = new UploadSnapshotRequest(uploadRequest);
+            if (totalScreenshots == 1) {
+                chunkRequest.setFullPage("false");
+            } else {
+                chunkRequest.setIsLastChunk(String.valueOf(i == totalScreenshots - 1));
+                chunkRequest.setChunkCount(i);
+            }
+            long chunkBytes = screenshots.get(i).length();
+            journal.enqueue(uploadRequest.getScreenshotHash(), screenshots.get(i), chunkRequest, buildData);
+            // The drainer reserves its own copy buffer when it uploads the chunk
+            captured.shrink(chunkBytes);
+        }
+    }
+
+    private UploadJournal getUploadJournal() throws Exception {
+        UploadJournal journal = uploadJournal;
+        if (journal == null) {
+            synchronized (this) {
+                journal = uploadJournal;
+                if (journal == null) {
+                    journal = UploadJournal.open(job -> NetworkScheduler.callAs(NetworkScheduler.Priority.BACKGROUND, () -> {
+                        util.uploadScreenshot(job.getFile(), job.getRequest(), job.getBuildData());
+                        return null;
+                    }));
+                    uploadJournal = journal;
+                }
+            }
+        }
+        return journal;
+    }
 
-        // Upload all but last screenshot
-        for (int i = 0; i < totalScreenshots - 1; i++) {
-            uploadRequest.setIsLastChunk("false");
-            uploadRequest.setChunkCount(i);
-            util.uploadScreenshot(screenshots.get(i), uploadRequest, buildData);
+    private long parseDrainTimeout(Map<String, String> options) {
+        String value = getOptionOrEnv(options, OPTION_DRAIN_TIMEOUT, "SMARTUI_DRAIN_TIMEOUT_MS");
+        if (!value.isEmpty()) {
+            try {
+                return Math.max(0, Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                log.warning("Invalid drain timeout: " + value + ", using default: " + DEFAULT_DRAIN_TIMEOUT_MS);
+            }
         }
+        return DEFAULT_DRAIN_TIMEOUT_MS;
+    }
+
+    /**
+     * Stops accepting snapshots, then waits until the deadline for the snapshot calls in flight and the
+     * journaled uploads. Work is counted in snapshot calls and journaled chunk uploads; uploads that did
+     * not finish stay in the journal and are replayed by the next session.
+     */
+    private DrainReport drain() {
+        stopping = true;
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        int outstandingSnapshots = inFlightSnapshots.get();
+        int failedBefore = failedSnapshots.get();
+        UploadJournal journal = uploadJournal;
+        int uploadsCompletedBefore = journal != null ? journal.getCompletedCount() : 0;
+        int uploadsFailedBefore = journal != null ? journal.getFailedCount() : 0;
+
+        boolean timedOut = false;
+        synchronized (inFlightSnapshots) {
+            while (inFlightSnapshots.get() > 0 && !timedOut) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    timedOut = true;
+                    break;
+                }
+                try {
+                    inFlightSnapshots.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    timedOut = true;
+                }
+            }
+        }
+        int abandoned = inFlightSnapshots.get();
+        int failed = failedSnapshots.get() - failedBefore;
+        int completed = Math.max(0, outstandingSnapshots - abandoned - failed);
+
+        // A snapshot finishing during the drain may have opened the journal
+        journal = uploadJournal;
+        if (journal != null) {
+            try {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (timedOut || remaining <= 0 || !journal.awaitDrained(remaining)) {
+                    timedOut = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timedOut = true;
+            } finally {
+                journal.close();
+                uploadJournal = null;
+            }
+            completed += journal.getCompletedCount() - uploadsCompletedBefore;
+            failed += journal.getFailedCount() - uploadsFailedBefore;
+            abandoned += journal.getPendingCount();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        SmartUIMetrics.recordDuration(Constants.Metrics.UPLOAD_DRAIN_MS, durationMillis);
+        DrainReport report = new DrainReport(completed, failed, abandoned, durationMillis, timedOut);
+        if (abandoned > 0 || failed > 0) {
+            log.warning("Finalizing build with unfinished work: " + report +
+                    (journal != null ? ", unfinished uploads stay in the upload journal" : ""));
+        } else if (completed > 0) {
+            log.info("Drained outstanding work before finalizing build: " + report);
+        }
+        return report;
+    }
 
-        // Upload last screenshot
-        uploadRequest.setIsLastChunk("true");
-        uploadRequest.setChunkCount(totalScreenshots - 1);
-        util.uploadScreenshot(screenshots.get(totalScreenshots - 1), uploadRequest, buildData);
+    /**
+     * @return the outcome of draining outstanding work during the last {@link #stop()}, or null
+     */
+    public DrainReport getLastDrainReport() {
+        return lastDrainReport;
     }
 
     private void setBoundingBoxes(UploadSnapshotRequest uploadRequest,
@@ -493,7 +977,21 @@ public class SmartUIAppSnapshot {
     }
 
     public void stop() throws Exception {
+        lastDrainReport = drain();
+        ShardSession shard = shardSession;
+        if (shard != null) {
+            stopShard(shard);
+            return;
+        }
+        if (lazyBuild && lazyBuildCreation.get() == null) {
+            log.info("No screenshots were taken, no build was created for " + projectToken);
+            return;
+        }
         try {
+            if (lazyBuild) {
+                resolveBuildData();
+            }
+            BuildData buildData = buildHandle.get();
             if (buildData != null && buildData.getBuildId() != null) {
                 log.info("Stopping session for buildId: " + buildData.getBuildId());
                 util.stopBuild(buildData.getBuildId(), projectToken);
@@ -507,6 +1005,40 @@ public class SmartUIAppSnapshot {
         }
     }
 
+    /**
+     * Completes this shard; only the last shard of the run finalizes the shared build.
+     */
+    private void stopShard(ShardSession shard) throws Exception {
+        try {
+            if (!shardCoordinator.completeShard(shard.runId, shard.index)) {
+                log.info("Shard " + shard.index + " of " + shard.total + " done, the last shard finalizes the build");
+                return;
+            }
+            BuildData buildData = buildHandle.get();
+            log.info("Last shard done, stopping session for buildId: " + buildData.getBuildId());
+            util.stopBuild(buildData.getBuildId(), projectToken);
+            log.info("Session ended for token: " + projectToken);
+        } catch (Exception e) {
+            log.severe("Couldn't stop the build due to an exception: " + e.getMessage());
+            throw new Exception(Constants.Errors.STOP_BUILD_FAILED + " due to : " + e.getMessage());
+        }
+    }
+
+    private static class ShardSession {
+        final String runId;
+        final int index;
+        final int total;
+        // Build id provided by an external coordinator, empty to create the build
+        final String providedBuildId;
+
+        ShardSession(String runId, int index, int total, String providedBuildId) {
+            this.runId = runId;
+            this.index = index;
+            this.total = total;
+            this.providedBuildId = providedBuildId;
+        }
+    }
+
     private static class SnapshotConfig {
         final String deviceName;
         final String platform;
@@ -9,6 +9,16 @@ public class SmartUIConfig {
     private String host = "localhost";
     private boolean autoInstall = true;
     private boolean fetchResult = false;
+    private boolean attachMode = false;
+    private boolean sharedServer = false;
+    private String leaseDirectory;
+    private int poolSize = 1;
+    private int connectTimeout = 10000;
+    private int readTimeout = 0;
+    private long healthCheckInterval = 5000;
+    private long drainTimeout = 30000;
+    private String cliVersion;
+    private boolean cliPreinstall = false;
     private String serverAddress = "http://localhost:49152";
     
     private String projectToken;
@@ -35,6 +45,136 @@ public class SmartUIConfig {
     }
 
     
+    /**
+     * When enabled, {@link SmartUI#startServer()} first probes the configured address and attaches to a
+     * healthy SmartUI server that is already running for the same build instead of spawning a new one.
+     * With a build name configured, a server that does not report its build is refused rather than
+     * attached to. An attached server is left running by {@link SmartUI#stopServer()}.
+     */
+    public SmartUIConfig withAttachMode(boolean attachMode) {
+        this.attachMode = attachMode;
+        return this;
+    }
+
+    public boolean isAttachMode() {
+        return attachMode;
+    }
+
+    /**
+     * When enabled, all JVMs on this machine using the same port share one SmartUI server through a
+     * file-based lease: the first one starts it and the last one to stop stops it.
+     * @see io.github.lambdatest.utils.ServerLeaseManager
+     */
+    public SmartUIConfig withSharedServer(boolean sharedServer) {
+        this.sharedServer = sharedServer;
+        return this;
+    }
+
+    public boolean isSharedServer() {
+        return sharedServer;
+    }
+
+    /**
+     * Directory holding the shared server lease files. Defaults to {@code SMARTUI_LEASE_DIR} or
+     * {@code <java.io.tmpdir>/smartui-lease}.
+     */
+    public SmartUIConfig withLeaseDirectory(String leaseDirectory) {
+        this.leaseDirectory = leaseDirectory;
+        return this;
+    }
+
+    public String getLeaseDirectory() {
+        return leaseDirectory;
+    }
+
+    /**
+     * Number of SmartUI CLI servers to run for this build. With more than one, snapshots are spread over a
+     * {@link SmartUIServerPool} of servers on automatically allocated ports. Each server must report the id of
+     * its build in its healthcheck, so that all of them are confirmed to serve the same build.
+     */
+    public SmartUIConfig withPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Connect timeout in milliseconds for requests to the SmartUI server.
+     */
+    public SmartUIConfig withConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Read timeout in milliseconds for requests to the SmartUI server, 0 for none.
+     */
+    public SmartUIConfig withReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Interval in milliseconds of the background healthcheck of the SmartUI server, 0 to track its health
+     * from snapshot requests only.
+     */
+    public SmartUIConfig withHealthCheckInterval(long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+        return this;
+    }
+
+    public long getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    /**
+     * How long {@link SmartUI#stopServer()} waits for snapshots in flight before stopping the server anyway.
+     */
+    public SmartUIConfig withDrainTimeout(long drainTimeout) {
+        this.drainTimeout = drainTimeout;
+        return this;
+    }
+
+    public long getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Pins the SmartUI CLI to an exact version, installed with npm if the CLI on the PATH differs.
+     */
+    public SmartUIConfig withCliVersion(String cliVersion) {
+        this.cliVersion = cliVersion;
+        return this;
+    }
+
+    public String getCliVersion() {
+        return cliVersion;
+    }
+
+    /**
+     * When enabled, the SmartUI CLI is located, and installed if needed, in the background as soon as
+     * {@link SmartUI} is created instead of when the server is started.
+     */
+    public SmartUIConfig withCliPreinstall(boolean cliPreinstall) {
+        this.cliPreinstall = cliPreinstall;
+        return this;
+    }
+
+    public boolean isCliPreinstall() {
+        return cliPreinstall;
+    }
+
     public SmartUIConfig withPort(int port) {
         this.port = port;
         this.serverAddress = "http://" + this.host + ":" + port;
@@ -132,6 +272,10 @@ public class SmartUIConfig {
         if (port <= 0 || port > 65535) {
             errors.add("Port must be between 1 and 65535");
         }
+
+        if (poolSize < 1) {
+            errors.add("Pool size must be at least 1");
+        }
         
         return errors;
     }
@@ -172,6 +316,58 @@ public class SmartUIConfig {
         if (envBuildName != null) {
             config.buildName = envBuildName;
         }
+
+        String envAttachMode = System.getenv("SMARTUI_ATTACH_MODE");
+        if (envAttachMode != null) {
+            config.attachMode = Boolean.parseBoolean(envAttachMode);
+        }
+
+        String envSharedServer = System.getenv("SMARTUI_SHARED_SERVER");
+        if (envSharedServer != null) {
+            config.sharedServer = Boolean.parseBoolean(envSharedServer);
+        }
+
+        String envPoolSize = System.getenv("SMARTUI_POOL_SIZE");
+        if (envPoolSize != null) {
+            try {
+                config.poolSize = Integer.parseInt(envPoolSize);
+            } catch (NumberFormatException e) {
+                // Use default pool size
+            }
+        }
+
+        String envHealthCheckInterval = System.getenv("SMARTUI_HEALTHCHECK_INTERVAL_MS");
+        if (envHealthCheckInterval != null) {
+            try {
+                config.healthCheckInterval = Long.parseLong(envHealthCheckInterval);
+            } catch (NumberFormatException e) {
+                // Use default interval
+            }
+        }
+
+        String envDrainTimeout = System.getenv("SMARTUI_DRAIN_TIMEOUT_MS");
+        if (envDrainTimeout != null) {
+            try {
+                config.drainTimeout = Long.parseLong(envDrainTimeout);
+            } catch (NumberFormatException e) {
+                // Use default timeout
+            }
+        }
+
+        String envCliVersion = System.getenv("SMARTUI_CLI_VERSION");
+        if (envCliVersion != null && !envCliVersion.trim().isEmpty()) {
+            config.cliVersion = envCliVersion.trim();
+        }
+
+        String envCliPreinstall = System.getenv("SMARTUI_CLI_PREINSTALL");
+        if (envCliPreinstall != null) {
+            config.cliPreinstall = Boolean.parseBoolean(envCliPreinstall);
+        }
+
+        String envLeaseDirectory = System.getenv("SMARTUI_LEASE_DIR");
+        if (envLeaseDirectory != null) {
+            config.leaseDirectory = envLeaseDirectory;
+        }
         
         config.serverAddress = "http://" + config.host + ":" + config.port;
         
@@ -183,6 +379,9 @@ public class SmartUIConfig {
         return "SmartUIConfig{" +
                 "port=" + port +
                 ", autoInstall=" + autoInstall +
+                ", attachMode=" + attachMode +
+                ", sharedServer=" + sharedServer +
+                ", poolSize=" + poolSize +
                 ", serverAddress='" + serverAddress + '\'' +
                 ", projectToken='" + (projectToken != null ? "***" + projectToken.substring(Math.max(0, projectToken.length() - 4)) : null) + '\'' +
                 ", buildName='" + buildName + '\'' +
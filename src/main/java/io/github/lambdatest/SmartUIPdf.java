@@ -5,8 +5,10 @@ import io.github.lambdatest.models.UploadPDFResponse;
 import io.github.lambdatest.models.FormattedResults;
 import io.github.lambdatest.models.PdfResult;
 import io.github.lambdatest.models.PdfPage;
-import io.github.lambdatest.models.Screenshot;
+import io.github.lambdatest.models.PdfResultsIndex;
+import io.github.lambdatest.models.ScreenshotTable;
 import io.github.lambdatest.utils.LoggerUtil;
+import io.github.lambdatest.utils.NetworkScheduler;
 import io.github.lambdatest.utils.SmartUIUtil;
 
 import javax.xml.transform.Result;
@@ -14,9 +16,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 
 public class SmartUIPdf {
@@ -71,7 +71,9 @@ public class SmartUIPdf {
         }
 
         try {
-            UploadPDFResponse response = smartUIUtils.postPDFToSmartUI(pdfFiles, this.projectToken, this.buildName, this.pdfNames);
+            // A bulk upload, which should not hold back the uploads of running tests
+            UploadPDFResponse response = NetworkScheduler.callAs(NetworkScheduler.Priority.BACKGROUND,
+                    () -> smartUIUtils.postPDFToSmartUI(pdfFiles, this.projectToken, this.buildName, this.pdfNames));
 
             if (this.fetchResults) {
                 BuildScreenshotsResponse screenshotsResponse = smartUIUtils.getBuildScreenshots(response.getProjectId(), response.getBuildId(), this.projectToken);
@@ -95,20 +97,21 @@ public class SmartUIPdf {
     }
 
     private FormattedResults analyzeScreenshots(BuildScreenshotsResponse response) {
-        if (response.getScreenshots() == null || response.getScreenshots().isEmpty()) {
+        ScreenshotTable table = response.getScreenshotTable();
+        if (table == null || table.isEmpty()) {
             log.warning("No screenshots found in response");
             return null;
         }
 
-        Map<String, List<Screenshot>> pdfGroups = groupScreenshotsByPdf(response.getScreenshots());
-        int pdfsWithMismatches = countPdfsWithMismatches(pdfGroups);
-        int pagesWithMismatches = countPagesWithMismatches(response.getScreenshots());
+        PdfResultsIndex index = PdfResultsIndex.build(table);
+        int pdfsWithMismatches = index.getPdfsWithMismatches();
+        int pagesWithMismatches = index.getPagesWithMismatches();
 
         log.info("PDF Upload Results:");
         log.info("Build Name: " + response.getBuild().getName());
         log.info("Project Name: " + response.getProject().getName());
-        log.info("Total PDFs: " + pdfGroups.size());
-        log.info("Total Pages: " + response.getScreenshots().size());
+        log.info("Total PDFs: " + index.getPdfCount());
+        log.info("Total Pages: " + index.getPageCount());
 
         if (pdfsWithMismatches > 0 || pagesWithMismatches > 0) {
             log.warning(pdfsWithMismatches + " PDFs and " + pagesWithMismatches + " Pages in build " + response.getBuild().getName() + " have changes present.");
@@ -116,27 +119,26 @@ public class SmartUIPdf {
             log.info("All PDFs match the baseline.");
         }
 
-        for (Map.Entry<String, List<Screenshot>> entry : pdfGroups.entrySet()) {
-            String pdfName = entry.getKey();
-            List<Screenshot> pages = entry.getValue();
-            boolean hasMismatch = pages.stream().anyMatch(page -> page.getMismatchPercentage() > 0);
-            
-            if (hasMismatch) {
-                log.warning("📄 " + pdfName + " (" + pages.size() + " pages)");
+        for (PdfResultsIndex.Pdf pdf : index.getPdfs()) {
+            if (pdf.hasMismatch()) {
+                log.warning(() -> "📄 " + pdf.getName() + " (" + pdf.getPageCount() + " pages)");
             } else {
-                log.info("📄 " + pdfName + " (" + pages.size() + " pages)");
+                log.info(() -> "📄 " + pdf.getName() + " (" + pdf.getPageCount() + " pages)");
             }
 
-            for (Screenshot page : pages) {
-                if (page.getMismatchPercentage() > 0) {
-                    log.warning("  - Page " + getPageNumber(page.getScreenshotName()) + ": " + page.getStatus() + " (Mismatch: " + page.getMismatchPercentage() + "%)");
+            // Page lines are only built if the logger will actually print them
+            for (int position = 0; position < pdf.getPageCount(); position++) {
+                int row = pdf.getRow(position);
+                int pageNumber = pdf.getPageNumber(position);
+                if (table.hasMismatch(row)) {
+                    log.warning(() -> formatPageLine(table, row, pageNumber));
                 } else {
-                    log.info("  - Page " + getPageNumber(page.getScreenshotName()) + ": " + page.getStatus() + " (Mismatch: " + page.getMismatchPercentage() + "%)");
+                    log.info(() -> formatPageLine(table, row, pageNumber));
                 }
             }
         }
 
-        List<PdfResult> formattedPdfs = formatPdfsForOutput(pdfGroups);
+        List<PdfResult> formattedPdfs = formatPdfsForOutput(index);
         
         FormattedResults.ResultData data = new FormattedResults.ResultData(
             response.getBuild().getBuildId(),
@@ -149,60 +151,31 @@ public class SmartUIPdf {
         return new FormattedResults("success", data);
     }
 
-    private Map<String, List<Screenshot>> groupScreenshotsByPdf(List<Screenshot> screenshots) {
-        Map<String, List<Screenshot>> pdfGroups = new HashMap<>();
-
-        for (Screenshot screenshot : screenshots) {
-            String pdfName = screenshot.getScreenshotName().split("#")[0];
-            pdfGroups.computeIfAbsent(pdfName, k -> new ArrayList<>()).add(screenshot);
-        }
-
-        return pdfGroups;
+    private String formatPageLine(ScreenshotTable table, int row, int pageNumber) {
+        return "  - Page " + pageNumber + ": " + table.getStatus(row) + " (Mismatch: " + table.getMismatchPercentage(row) + "%)";
     }
 
-    private int countPdfsWithMismatches(Map<String, List<Screenshot>> pdfGroups) {
-        int count = 0;
+    private List<PdfResult> formatPdfsForOutput(PdfResultsIndex index) {
+        ScreenshotTable table = index.getTable();
+        List<PdfResult> results = new ArrayList<>(index.getPdfCount());
 
-        for (List<Screenshot> pages : pdfGroups.values()) {
-            if (pages.stream().anyMatch(page -> page.getMismatchPercentage() > 0)) {
-                count++;
-            }
-        }
-
-        return count;
-    }
-
-    private int countPagesWithMismatches(List<Screenshot> screenshots) {
-        return (int) screenshots.stream().filter(screenshot -> screenshot.getMismatchPercentage() > 0).count();
-    }
-
-    private List<PdfResult> formatPdfsForOutput(Map<String, List<Screenshot>> pdfGroups) {
-        List<PdfResult> results = new ArrayList<>();
-
-        for (Map.Entry<String, List<Screenshot>> entry : pdfGroups.entrySet()) {
-            String pdfName = entry.getKey();
-            List<Screenshot> pages = entry.getValue();
-            
-            List<PdfPage> formattedPages = new ArrayList<>();
-            for (Screenshot page : pages) {
+        for (PdfResultsIndex.Pdf pdf : index.getPdfs()) {
+            List<PdfPage> formattedPages = new ArrayList<>(pdf.getPageCount());
+            for (int position = 0; position < pdf.getPageCount(); position++) {
+                int row = pdf.getRow(position);
                 PdfPage pdfPage = new PdfPage(
-                    Integer.parseInt(getPageNumber(page.getScreenshotName())),
-                    page.getCapturedImageId(),
-                    page.getMismatchPercentage(),
-                    page.getStatus(),
-                    page.getShareableLink()
+                    pdf.getPageNumber(position),
+                    table.getCapturedImageId(row),
+                    table.getMismatchPercentage(row),
+                    table.getStatus(row),
+                    table.getShareableLink(row)
                 );
                 formattedPages.add(pdfPage);
             }
             
-            results.add(new PdfResult(pdfName, pages.size(), formattedPages));
+            results.add(new PdfResult(pdf.getName(), pdf.getPageCount(), formattedPages));
         }
 
         return results;
     }
-
-    private String getPageNumber(String screenshotName) {
-        String[] parts = screenshotName.split("#");
-        return parts.length > 1 ? parts[1] : "1";
-    }
 }
@@ -4,6 +4,7 @@ import org.openqa.selenium.WebDriver;
 import io.github.lambdatest.utils.LoggerUtil;
 import io.github.lambdatest.utils.SmartUIUtil;
 import io.github.lambdatest.constants.Constants;
+import io.github.lambdatest.models.SnapshotResults;
 import org.json.JSONObject;
 
 import java.util.logging.Logger;
@@ -16,6 +17,12 @@ import java.util.logging.Logger;
  *   <li>{@link #smartuiResults(WebDriver)} - fetches results for a specific session (driver's sessionId)</li>
  *   <li>{@link #smartuiResults()} - fetches results for the entire active build</li>
  * </ul>
+ *
+ * <p>{@link #getResults(WebDriver)} and {@link #getResults()} return the same data as a typed,
+ * lazily parsed {@link SnapshotResults} view instead of a JSONObject.
+ *
+ * <p>Concurrent identical queries are coalesced into a single request to the CLI server and the
+ * result is cached for a short TTL, see {@link io.github.lambdatest.utils.SmartUIResultsCache}.
  */
 public class SmartUIResults {
 
@@ -34,14 +41,38 @@ public class SmartUIResults {
      * @throws Exception if the driver is null, not a RemoteWebDriver, or the request fails
      */
     public static JSONObject smartuiResults(WebDriver driver) throws Exception {
+        return getResults(driver).toJSONObject();
+    }
+
+    /**
+     * Fetches SmartUI visual comparison results for the entire active build.
+     *
+     * <p>This method queries the SmartUI server for all screenshot data in the current build
+     * without filtering by session. The response contains screenshots grouped by name
+     * with a summary indicating variant and screenshot counts.
+     *
+     * @return JSONObject containing screenshots grouped by name and a summary with type "build"
+     * @throws Exception if the SmartUI server is not running or the request fails
+     */
+    public static JSONObject smartuiResults() throws Exception {
+        return getResults().toJSONObject();
+    }
+
+    /**
+     * Typed variant of {@link #smartuiResults(WebDriver)}.
+     *
+     * <p>The returned view parses the response lazily, on the first query, and indexes it by snapshot
+     * name, variant and status. Prefer it over the JSONObject variant for large builds.
+     *
+     * @param driver A Selenium WebDriver instance (must be a RemoteWebDriver)
+     * @return typed results for the driver's session
+     * @throws Exception if the driver is null, not a RemoteWebDriver, or the request fails
+     */
+    public static SnapshotResults getResults(WebDriver driver) throws Exception {
         if (driver == null) {
             throw new IllegalArgumentException(Constants.Errors.SELENIUM_DRIVER_NULL);
         }
 
-        if (!smartUIUtils.isSmartUIRunning()) {
-            throw new IllegalStateException(Constants.Errors.SMARTUI_NOT_RUNNING);
-        }
-
         try {
             // Extract sessionId from the driver (null-safe)
             org.openqa.selenium.remote.SessionId sid = ((org.openqa.selenium.remote.RemoteWebDriver) driver).getSessionId();
@@ -52,11 +83,12 @@ public class SmartUIResults {
 
             log.info("Fetching SmartUI results for sessionId: " + sessionId);
 
-            // CLI server resolves buildId and projectToken from its context
-            String resultsResponse = smartUIUtils.getSmartUIResults(sessionId);
+            // CLI server resolves buildId and projectToken from its context. Concurrent callers for the
+            // same session share a single request; the server health is checked by whichever caller issues it.
+            SnapshotResults results = smartUIUtils.getSmartUIResultsView(sessionId);
             log.info("SmartUI results fetched successfully for sessionId: " + sessionId);
 
-            return new JSONObject(resultsResponse);
+            return results;
 
         } catch (ClassCastException e) {
             throw new IllegalArgumentException("Driver must be an instance of RemoteWebDriver to extract sessionId", e);
@@ -66,28 +98,20 @@ public class SmartUIResults {
     }
 
     /**
-     * Fetches SmartUI visual comparison results for the entire active build.
+     * Typed variant of {@link #smartuiResults()}.
      *
-     * <p>This method queries the SmartUI server for all screenshot data in the current build
-     * without filtering by session. The response contains screenshots grouped by name
-     * with a summary indicating variant and screenshot counts.
-     *
-     * @return JSONObject containing screenshots grouped by name and a summary with type "build"
+     * @return typed results for the entire active build
      * @throws Exception if the SmartUI server is not running or the request fails
      */
-    public static JSONObject smartuiResults() throws Exception {
-        if (!smartUIUtils.isSmartUIRunning()) {
-            throw new IllegalStateException(Constants.Errors.SMARTUI_NOT_RUNNING);
-        }
-
+    public static SnapshotResults getResults() throws Exception {
         try {
             log.info("Fetching SmartUI results for entire build");
 
             // CLI server resolves buildId from its active build context
-            String resultsResponse = smartUIUtils.getSmartUIResults(null);
+            SnapshotResults results = smartUIUtils.getSmartUIResultsView(null);
             log.info("SmartUI results fetched successfully for build");
 
-            return new JSONObject(resultsResponse);
+            return results;
 
         } catch (Exception e) {
             throw e;
@@ -0,0 +1,464 @@
+package io.github.lambdatest;
+
+import io.github.lambdatest.exceptions.SmartUIException;
+import io.github.lambdatest.utils.LoggerUtil;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Pool of SmartUI CLI servers for a single build. A single CLI process serializes snapshot
+ * processing, so under many concurrent callers the pool spreads snapshots over K servers, each
+ * started on an automatically allocated port with the same build name, project token and config.
+ *
+ * <p>Each snapshot is routed to the healthy member with the fewest snapshots in flight; ties are
+ * broken by the lowest moving average of recent snapshot latencies. A background monitor checks every
+ * member and replaces dead ones with a fresh server on a new port; a failed snapshot triggers an
+ * immediate check of the member that served it.
+ *
+ * <p>Every member must report the build id it serves in its healthcheck, and all members must report the
+ * same one; a member that does not is stopped and counted as failed to start. Snapshots are posted with a
+ * context id, so that {@link #stop()} can wait until every member processed all snapshots it accepted,
+ * up to {@link SmartUIConfig#getDrainTimeout()} ms. Only then are the members stopped, with a single one
+ * finalizing the shared build, since the CLI finalizes its build whenever it is stopped through
+ * {@code /stop}.
+ *
+ * <p>Enable it with {@link SmartUIConfig#withPoolSize(int)}; {@link SmartUI} then delegates to the pool.
+ */
+public class SmartUIServerPool {
+    public static final long DEFAULT_MONITOR_INTERVAL_MS = 5000;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final int MAX_PORT_ATTEMPTS = 3;
+
+    private static final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+
+    private final SmartUIConfig config;
+    private final int size;
+    private final long monitorIntervalMs;
+    private final AtomicReferenceArray<Member> members;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // Build all members must serve, taken from the first member that reports one
+    private final AtomicReference<String> buildId = new AtomicReference<>();
+    private ExecutorService replacer;
+    private ScheduledExecutorService monitor;
+
+    public SmartUIServerPool(SmartUIConfig config, int size) {
+        this(config, size, DEFAULT_MONITOR_INTERVAL_MS);
+    }
+
+    public SmartUIServerPool(SmartUIConfig config, int size, long monitorIntervalMs) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.config = config;
+        this.size = size;
+        this.monitorIntervalMs = monitorIntervalMs;
+        this.members = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Starts all members in parallel. Fails only if no member could be started; members that failed
+     * are retried by the health monitor.
+     */
+    public void start() throws SmartUIException {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Server pool is already running");
+            return;
+        }
+        replacer = Executors.newCachedThreadPool(daemonThreads("smartui-pool-start"));
+
+        List<CompletableFuture<Member>> starts = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            final int index = slot;
+            starts.add(CompletableFuture.supplyAsync(() -> startMember(index), replacer));
+        }
+
+        int started = 0;
+        Exception lastFailure = null;
+        for (int slot = 0; slot < size; slot++) {
+            try {
+                members.set(slot, starts.get(slot).join());
+                started++;
+            } catch (Exception e) {
+                lastFailure = e;
+                log.warning("Failed to start SmartUI pool member " + slot + ": " + e.getMessage());
+            }
+        }
+        if (started == 0) {
+            stop();
+            throw new SmartUIException("Failed to start any SmartUI server of the pool", lastFailure);
+        }
+        log.info("SmartUI server pool started with " + started + " of " + size + " members");
+
+        monitor = Executors.newSingleThreadScheduledExecutor(daemonThreads("smartui-pool-monitor"));
+        monitor.scheduleWithFixedDelay(this::checkMembers, monitorIntervalMs, monitorIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Rejects new snapshots, waits until every member processed the snapshots it accepted and then stops
+     * the members, finalizing the shared build once.
+     */
+    public void stop() {
+        running.set(false);
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        if (replacer != null) {
+            replacer.shutdownNow();
+        }
+        List<Member> stopping = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            Member member = members.getAndSet(slot, null);
+            if (member != null) {
+                stopping.add(member);
+            }
+        }
+
+        // No member is stopped before all are drained, as the first one stopped through /stop finalizes the build
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getDrainTimeout());
+        for (Member member : stopping) {
+            awaitSnapshots(member, deadline);
+        }
+        for (Member member : stopping) {
+            awaitProcessed(member, deadline);
+        }
+
+        // Only the last member stopped finalizes the build, preferably a healthy one, and otherwise the one left
+        // with the most unprocessed snapshots, since /stop processes its queue before finalizing
+        stopping.sort(Comparator.comparing((Member member) -> member.healthy)
+                .thenComparingInt(member -> member.accepted.size()));
+        for (int i = 0; i < stopping.size(); i++) {
+            Member member = stopping.get(i);
+            boolean finalizeBuild = i == stopping.size() - 1;
+            if (!finalizeBuild && !member.accepted.isEmpty()) {
+                log.warning("Terminating SmartUI pool member on " + member.config.getServerAddress() + " with " +
+                        member.accepted.size() + " snapshots not confirmed as processed within the drain timeout");
+            }
+            stopMember(member, finalizeBuild);
+        }
+        buildId.set(null);
+        log.info("SmartUI server pool stopped");
+    }
+
+    public void takeSnapshot(org.openqa.selenium.WebDriver driver, String snapshotName, Map<String, Object> options) throws SmartUIException {
+        if (!running.get()) {
+            throw new SmartUIException("Cannot take snapshot: SmartUI server pool is stopping");
+        }
+        Member member = select();
+        // Counted before checking the flag again, so a concurrent stop either waits for this snapshot or it is rejected
+        member.inFlight.incrementAndGet();
+        long startedAt = System.nanoTime();
+        try {
+            if (!running.get()) {
+                throw new SmartUIException("Cannot take snapshot: SmartUI server pool is stopping");
+            }
+            Map<String, Object> memberOptions = options != null ? new HashMap<>(options) : new HashMap<>();
+            // A synchronous snapshot waits for its own status, under a context id of its own
+            boolean sync = Boolean.TRUE.equals(memberOptions.get("sync"));
+            String contextId = sync ? null : UUID.randomUUID().toString();
+            if (contextId != null) {
+                memberOptions.put("contextId", contextId);
+            }
+            member.server.takeSnapshot(driver, snapshotName, memberOptions);
+            member.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            if (contextId != null) {
+                member.accepted.put(contextId, snapshotName);
+            }
+        } catch (SmartUIException e) {
+            // The failure may be the server's fault, check it now instead of waiting for the monitor
+            if (running.get() && replacer != null) {
+                replacer.execute(() -> checkMember(member.slot, member));
+            }
+            throw e;
+        } finally {
+            if (member.inFlight.decrementAndGet() == 0) {
+                synchronized (member.inFlight) {
+                    member.inFlight.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Prefetches the DOM serializer on every member, see {@link SmartUI#warmUpAsync()}.
+     */
+    void warmUpConnections() {
+        for (int slot = 0; slot < size; slot++) {
+            Member member = members.get(slot);
+            if (member != null) {
+                member.server.warmUpConnections();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHealthyMemberCount() {
+        int healthy = 0;
+        for (int slot = 0; slot < size; slot++) {
+            Member member = members.get(slot);
+            if (member != null && member.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * @return the server addresses of the current members, in slot order
+     */
+    public List<String> getMemberAddresses() {
+        List<String> addresses = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            Member member = members.get(slot);
+            if (member != null) {
+                addresses.add(member.config.getServerAddress());
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * Waits until the snapshots being posted to the member are accepted or failed.
+     */
+    private void awaitSnapshots(Member member, long deadline) {
+        synchronized (member.inFlight) {
+            while (member.inFlight.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    log.warning("Stopping SmartUI pool member on " + member.config.getServerAddress() + " with " +
+                            member.inFlight.get() + " snapshots still in flight");
+                    return;
+                }
+                try {
+                    member.inFlight.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Polls the member for every snapshot it accepted until it processed them, removing the processed ones.
+     * Snapshots whose status the member cannot report are left in place.
+     */
+    private void awaitProcessed(Member member, long deadline) {
+        Iterator<Map.Entry<String, String>> snapshots = member.accepted.entrySet().iterator();
+        while (snapshots.hasNext()) {
+            Map.Entry<String, String> snapshot = snapshots.next();
+            try {
+                while (true) {
+                    long remaining = TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        return;
+                    }
+                    if (member.server.getClientContext().getHttpClient()
+                            .isSnapshotProcessed(snapshot.getKey(), snapshot.getValue(), pollTimeoutSeconds(remaining))) {
+                        snapshots.remove();
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                log.warning("Could not confirm that SmartUI pool member on " + member.config.getServerAddress() +
+                        " processed snapshot '" + snapshot.getValue() + "': " + e.getMessage());
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int pollTimeoutSeconds(long remainingSeconds) {
+        long timeout = remainingSeconds;
+        if (config.getReadTimeout() > 0) {
+            // The server holds the request for the whole poll, which must end before the socket times out
+            timeout = Math.min(timeout, TimeUnit.MILLISECONDS.toSeconds(config.getReadTimeout()) - 1);
+        }
+        return (int) Math.max(1, timeout);
+    }
+
+    private Member select() throws SmartUIException {
+        Member best = null;
+        for (int slot = 0; slot < size; slot++) {
+            Member member = members.get(slot);
+            if (member == null || !member.healthy) {
+                continue;
+            }
+            if (best == null) {
+                best = member;
+                continue;
+            }
+            int load = member.inFlight.get();
+            int bestLoad = best.inFlight.get();
+            if (load < bestLoad || (load == bestLoad && member.latencyMillis < best.latencyMillis)) {
+                best = member;
+            }
+        }
+        if (best == null) {
+            throw new SmartUIException("Cannot take snapshot: no healthy SmartUI server in the pool");
+        }
+        return best;
+    }
+
+    private Member startMember(int slot) {
+        Exception lastFailure = null;
+        for (int attempt = 0; attempt < MAX_PORT_ATTEMPTS; attempt++) {
+            SmartUIConfig memberConfig = memberConfig(findFreePort());
+            SmartUI server = new SmartUI(memberConfig);
+            try {
+                server.startServer();
+            } catch (SmartUIException e) {
+                // Most likely the port was taken between allocation and bind, try another one
+                lastFailure = e;
+                continue;
+            }
+            Member member = new Member(slot, memberConfig, server);
+            verifyBuild(member);
+            log.info("SmartUI pool member " + slot + " started on " + memberConfig.getServerAddress());
+            return member;
+        }
+        throw new IllegalStateException("Could not start SmartUI server: " +
+                (lastFailure != null ? lastFailure.getMessage() : "unknown error"), lastFailure);
+    }
+
+    /**
+     * Checks that the member serves the build of the pool, stopping it if it does not.
+     */
+    private void verifyBuild(Member member) {
+        String memberBuild = member.server.fetchBuildId();
+        if (memberBuild == null) {
+            // Its build may be the one of the pool, which must not be finalized while other members upload to it
+            stopMember(member, false);
+            throw new IllegalStateException("SmartUI pool member on " + member.config.getServerAddress() +
+                    " does not report its build id, so it cannot be confirmed to serve the build of the pool");
+        }
+        if (buildId.compareAndSet(null, memberBuild) || memberBuild.equals(buildId.get())) {
+            return;
+        }
+        // The member created a build of its own, which nothing else will finalize
+        stopMember(member, true);
+        throw new IllegalStateException("SmartUI pool member on " + member.config.getServerAddress() +
+                " joined build " + memberBuild + " instead of " + buildId.get());
+    }
+
+    private SmartUIConfig memberConfig(int port) {
+        SmartUIConfig memberConfig = new SmartUIConfig()
+                .withHost(config.getHost())
+                .withPort(port)
+                .withProjectToken(config.getProjectToken())
+                .withBuildName(config.getBuildName())
+                .withConfigFile(config.getConfigFile())
+                .withFetchResult(config.getFetchResults())
+                .withAutoInstall(config.isAutoInstall())
+                .withConnectTimeout(config.getConnectTimeout())
+                .withReadTimeout(config.getReadTimeout())
+                .withHealthCheckInterval(config.getHealthCheckInterval())
+                .withDrainTimeout(config.getDrainTimeout())
+                .withCliVersion(config.getCliVersion());
+        memberConfig.setTestType(config.getTestType());
+        return memberConfig;
+    }
+
+    private void checkMembers() {
+        for (int slot = 0; slot < size && running.get(); slot++) {
+            checkMember(slot, members.get(slot));
+        }
+    }
+
+    private void checkMember(int slot, Member member) {
+        if (member != null && member.server.checkServerHealth()) {
+            member.healthy = true;
+            return;
+        }
+        if (member != null) {
+            member.healthy = false;
+            log.warning("SmartUI pool member " + slot + " on " + member.config.getServerAddress() + " is unhealthy, replacing it");
+        }
+        try {
+            Member replacement = startMember(slot);
+            if (!running.get() || !members.compareAndSet(slot, member, replacement)) {
+                stopMember(replacement, false);
+                return;
+            }
+            if (member != null) {
+                stopMember(member, false);
+            }
+        } catch (Exception e) {
+            log.warning("Failed to replace SmartUI pool member " + slot + ": " + e.getMessage());
+        }
+    }
+
+    private void stopMember(Member member, boolean finalizeBuild) {
+        try {
+            member.server.stopServer(finalizeBuild);
+        } catch (Exception e) {
+            log.warning("Failed to stop SmartUI pool member on " + member.config.getServerAddress() + ": " + e.getMessage());
+        }
+    }
+
+    private static int findFreePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to allocate a port for a SmartUI server", e);
+        }
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Member {
+        final int slot;
+        final SmartUIConfig config;
+        final SmartUI server;
+        final AtomicInteger inFlight = new AtomicInteger();
+        // Snapshots accepted by the server, by context id, until it is confirmed to have processed them
+        final Map<String, String> accepted = new ConcurrentHashMap<>();
+        volatile double latencyMillis;
+        volatile boolean healthy = true;
+
+        Member(int slot, SmartUIConfig config, SmartUI server) {
+            this.slot = slot;
+            this.config = config;
+            this.server = server;
+        }
+
+        void recordLatency(long millis) {
+            // Racy updates only lose a sample, which is fine for a routing hint
+            double previous = latencyMillis;
+            latencyMillis = previous == 0 ? millis : previous + LATENCY_SMOOTHING * (millis - previous);
+        }
+    }
+}
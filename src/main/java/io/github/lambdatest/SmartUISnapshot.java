@@ -2,6 +2,7 @@ package io.github.lambdatest;
 
 import org.openqa.selenium.WebDriver;
 import io.github.lambdatest.utils.LoggerUtil;
+import io.github.lambdatest.utils.SmartUIClientContext;
 import io.github.lambdatest.utils.SmartUIUtil;
 import io.github.lambdatest.utils.WebElementResolver;
 import io.github.lambdatest.constants.Constants;
@@ -21,6 +22,15 @@ public class SmartUISnapshot {
 
     // Method with options parameter
     public static JSONObject smartuiSnapshot(WebDriver driver, String snapshotName, Map<String, Object> options, String testType) throws Exception {
+        return smartuiSnapshot(driver, snapshotName, options, testType, null);
+    }
+
+    /**
+     * Takes a snapshot through the SmartUI CLI server of {@code context}, or the server configured through
+     * {@code SMARTUI_SERVER_ADDRESS} if it is null.
+     */
+    public static JSONObject smartuiSnapshot(WebDriver driver, String snapshotName, Map<String, Object> options, String testType,
+                                             SmartUIClientContext context) throws Exception {
         if (driver == null) {
             throw new IllegalArgumentException(Constants.Errors.SELENIUM_DRIVER_NULL);
         }
@@ -31,7 +41,7 @@ public class SmartUISnapshot {
 
         Gson gson = new Gson();
 
-        SmartUIUtil smartUIUtils = new SmartUIUtil();
+        SmartUIUtil smartUIUtils = context != null ? new SmartUIUtil(context) : new SmartUIUtil();
 
         if (!smartUIUtils.isSmartUIRunning()) {
             throw new IllegalStateException(Constants.Errors.SMARTUI_NOT_RUNNING);
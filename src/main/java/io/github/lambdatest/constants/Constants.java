@@ -10,14 +10,33 @@ public interface Constants {
   public final String TEST_TYPE = "lambdatest-java-app-sdk";
   String LOCAL_SERVER_HOST = "http://localhost:8080";
 
+  /**
+   * @return the SmartUI API host from the {@code SMARTUI_CLIENT_API_URL} environment variable, else the
+   * {@code SMARTUI_CLIENT_API_URL} system property, else the public API
+   */
   public static String getHostUrlFromEnvOrDefault() {
-    String envUrl = System.getenv("SMARTUI_CLIENT_API_URL");
-    return (envUrl != null && !envUrl.isEmpty()) ? envUrl : SMARTUI_CLIENT_API_URL;
+    return getUrlFromEnvOrDefault("SMARTUI_CLIENT_API_URL", SMARTUI_CLIENT_API_URL);
   }
 
+  /**
+   * @return the upload host from the {@code SMARTUI_UPLOAD_URL} environment variable, else the
+   * {@code SMARTUI_UPLOAD_URL} system property, else the public API
+   */
   public static String getUploadHostUrlFromEnvOrDefault() {
-    String envUrl = System.getenv("SMARTUI_UPLOAD_URL");
-    return (envUrl != null && !envUrl.isEmpty()) ? envUrl : SMARTUI_UPLOAD_URL;
+    return getUrlFromEnvOrDefault("SMARTUI_UPLOAD_URL", SMARTUI_UPLOAD_URL);
+  }
+
+  /**
+   * Reads a URL from the environment variable, then from the system property of the same name, so that
+   * it can also be set per JVM, e.g. with {@code -DSMARTUI_CLIENT_API_URL=...} or from a test.
+   */
+  static String getUrlFromEnvOrDefault(String name, String defaultUrl) {
+    String envUrl = System.getenv(name);
+    if (envUrl != null && !envUrl.isEmpty()) {
+      return envUrl;
+    }
+    String propertyUrl = System.getProperty(name);
+    return (propertyUrl != null && !propertyUrl.isEmpty()) ? propertyUrl : defaultUrl;
   }
 
   //SmartUI API routes
@@ -35,6 +54,7 @@ public interface Constants {
     public static final String SMARTUI_BUILD_SCREENSHOTS_ROUTE = "/smartui/2.0/build/screenshots";
     public static final String SMARTUI_SNAPSHOT_STATUS_ROUTE = "/snapshot/status";
     public static final String SMARTUI_RESULTS_ROUTE = "/smartui/results";
+    public static final String SMARTUI_STOP_ROUTE = "/stop";
   }
 
   //Request methods
@@ -58,6 +78,20 @@ public interface Constants {
     public static final String LT_SDK_LOG_LEVEL = "LT_SDK_LOG_LEVEL";
   }
 
+  //Metric names, see SmartUIMetrics
+  interface Metrics {
+    public static final String SERVER_STARTUP_MS = "smartui.server.startup.ms";
+    public static final String SERVER_SHUTDOWN_MS = "smartui.server.shutdown.ms";
+    public static final String SERVER_DRAIN_MS = "smartui.server.drain.ms";
+    public static final String UPLOAD_DRAIN_MS = "smartui.upload.drain.ms";
+    // Followed by "inflight.bytes", or by "<destination>.inflight.bytes", ".waiting" and ".wait.ms"
+    public static final String BUDGET_PREFIX = "smartui.budget.";
+    // Followed by "<destination>.limit"
+    public static final String UPLOAD_LIMIT_PREFIX = "smartui.upload.";
+    // Followed by "<priority>.queued", ".running" and ".wait.ms"
+    public static final String SCHEDULER_PREFIX = "smartui.scheduler.";
+  }
+
   //Error constants
   interface Errors {
     public static final String SELENIUM_DRIVER_NULL = "An instance of the selenium driver object is required.";
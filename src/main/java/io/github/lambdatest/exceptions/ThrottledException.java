@@ -0,0 +1,29 @@
+package io.github.lambdatest.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a SmartUI endpoint rejects a request with 429 Too Many Requests or 503 Service
+ * Unavailable. Carries the delay the server asked for through {@code Retry-After}.
+ */
+public class ThrottledException extends IOException {
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public ThrottledException(String message, int statusCode, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the delay requested by the server, or -1 if it sent no usable {@code Retry-After}
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
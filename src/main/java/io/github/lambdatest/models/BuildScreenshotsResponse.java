@@ -13,14 +13,47 @@ public class BuildScreenshotsResponse {
     @SerializedName("project")
     private ProjectInfo project;
 
+    private transient ScreenshotTable screenshotTable;
+
     public BuildScreenshotsResponse() {}
 
+    /**
+     * Returns the screenshots as objects. When the response was read by the streaming parser the
+     * list is materialised from {@link #getScreenshotTable()} on first access.
+     */
     public List<Screenshot> getScreenshots() {
+        if (screenshots == null && screenshotTable != null) {
+            screenshots = screenshotTable.toScreenshots();
+        }
         return screenshots;
     }
 
     public void setScreenshots(List<Screenshot> screenshots) {
         this.screenshots = screenshots;
+        this.screenshotTable = null;
+    }
+
+    /**
+     * Returns the columnar view of the screenshots, building it from the screenshot list if the
+     * response was not produced by the streaming parser.
+     */
+    public ScreenshotTable getScreenshotTable() {
+        if (screenshotTable == null && screenshots != null) {
+            screenshotTable = ScreenshotTable.fromScreenshots(screenshots);
+        }
+        return screenshotTable;
+    }
+
+    public void setScreenshotTable(ScreenshotTable screenshotTable) {
+        this.screenshotTable = screenshotTable;
+        this.screenshots = null;
+    }
+
+    public int getScreenshotCount() {
+        if (screenshotTable != null) {
+            return screenshotTable.size();
+        }
+        return screenshots != null ? screenshots.size() : 0;
     }
 
     public BuildInfo getBuild() {
@@ -0,0 +1,50 @@
+package io.github.lambdatest.models;
+
+/**
+ * Outcome of draining outstanding work before a build is finalized or a server is stopped.
+ *
+ * <p>Work that completed while draining is counted as completed, work that failed while draining as
+ * failed, and work still outstanding when the deadline passed as abandoned.
+ */
+public class DrainReport {
+    private final int completed;
+    private final int failed;
+    private final int abandoned;
+    private final long durationMillis;
+    private final boolean timedOut;
+
+    public DrainReport(int completed, int failed, int abandoned, long durationMillis, boolean timedOut) {
+        this.completed = completed;
+        this.failed = failed;
+        this.abandoned = abandoned;
+        this.durationMillis = durationMillis;
+        this.timedOut = timedOut;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getAbandoned() {
+        return abandoned;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /** @return true if the deadline passed before all outstanding work finished */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    @Override
+    public String toString() {
+        return "DrainReport{completed=" + completed + ", failed=" + failed + ", abandoned=" + abandoned +
+                ", durationMillis=" + durationMillis + ", timedOut=" + timedOut + "}";
+    }
+}
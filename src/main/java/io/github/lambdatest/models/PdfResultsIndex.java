@@ -0,0 +1,275 @@
+package io.github.lambdatest.models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index over the pages of a PDF build, built in a single pass over a {@link ScreenshotTable}.
+ *
+ * <p>Screenshot names of PDF pages have the form {@code <pdfName>#<pageNumber>}. Each name is split
+ * exactly once while building the index. Every PDF then holds its pages sorted by page number,
+ * a precomputed mismatch counter and one bitset per {@link ScreenshotStatus}. Lookups by PDF name
+ * and by page number are constant time.
+ *
+ * <p>Instances are immutable and safe to share between threads.
+ */
+public final class PdfResultsIndex {
+    private static final char PAGE_SEPARATOR = '#';
+    private static final int DEFAULT_PAGE_NUMBER = 1;
+
+    private final ScreenshotTable table;
+    private final Map<String, Pdf> pdfsByName;
+    private final int pdfsWithMismatches;
+    private final int pagesWithMismatches;
+
+    private PdfResultsIndex(ScreenshotTable table, Map<String, Pdf> pdfsByName) {
+        this.table = table;
+        this.pdfsByName = Collections.unmodifiableMap(pdfsByName);
+        int pdfMismatches = 0;
+        int pageMismatches = 0;
+        for (Pdf pdf : pdfsByName.values()) {
+            if (pdf.mismatchedPageCount > 0) {
+                pdfMismatches++;
+            }
+            pageMismatches += pdf.mismatchedPageCount;
+        }
+        this.pdfsWithMismatches = pdfMismatches;
+        this.pagesWithMismatches = pageMismatches;
+    }
+
+    public static PdfResultsIndex build(ScreenshotTable table) {
+        Map<String, PdfBuilder> builders = new LinkedHashMap<>();
+        for (int row = 0; row < table.size(); row++) {
+            String screenshotName = table.getScreenshotName(row);
+            if (screenshotName == null) {
+                screenshotName = "";
+            }
+            int separator = screenshotName.indexOf(PAGE_SEPARATOR);
+            String pdfName = separator < 0 ? screenshotName : screenshotName.substring(0, separator);
+            int pageNumber = separator < 0 ? DEFAULT_PAGE_NUMBER : parsePageNumber(screenshotName, separator + 1);
+
+            PdfBuilder builder = builders.get(pdfName);
+            if (builder == null) {
+                builder = new PdfBuilder(pdfName);
+                builders.put(pdfName, builder);
+            }
+            builder.add(row, pageNumber, table.hasMismatch(row));
+        }
+
+        Map<String, Pdf> pdfs = new LinkedHashMap<>(builders.size() * 2);
+        for (PdfBuilder builder : builders.values()) {
+            pdfs.put(builder.name, builder.build(table));
+        }
+        return new PdfResultsIndex(table, pdfs);
+    }
+
+    public ScreenshotTable getTable() {
+        return table;
+    }
+
+    public int getPdfCount() {
+        return pdfsByName.size();
+    }
+
+    public int getPageCount() {
+        return table.size();
+    }
+
+    public int getPdfsWithMismatches() {
+        return pdfsWithMismatches;
+    }
+
+    public int getPagesWithMismatches() {
+        return pagesWithMismatches;
+    }
+
+    /**
+     * @return the PDFs in the order they first appear in the build
+     */
+    public Collection<Pdf> getPdfs() {
+        return pdfsByName.values();
+    }
+
+    public Pdf getPdf(String pdfName) {
+        return pdfsByName.get(pdfName);
+    }
+
+    /**
+     * @return the table row of the given page, or -1 if the PDF or page does not exist
+     */
+    public int findPage(String pdfName, int pageNumber) {
+        Pdf pdf = pdfsByName.get(pdfName);
+        return pdf != null ? pdf.findPage(pageNumber) : -1;
+    }
+
+    private static int parsePageNumber(String screenshotName, int start) {
+        int end = screenshotName.indexOf(PAGE_SEPARATOR, start);
+        if (end < 0) {
+            end = screenshotName.length();
+        }
+        if (start >= end) {
+            return DEFAULT_PAGE_NUMBER;
+        }
+        try {
+            return Integer.parseInt(screenshotName.substring(start, end));
+        } catch (NumberFormatException e) {
+            return DEFAULT_PAGE_NUMBER;
+        }
+    }
+
+    /**
+     * Pages of a single PDF, sorted by page number. Positions passed to the accessors refer to this
+     * sorted order, from 0 to {@link #getPageCount()} - 1.
+     */
+    public static final class Pdf {
+        private final String name;
+        private final int[] rows;
+        private final int[] pageNumbers;
+        private final int mismatchedPageCount;
+        private final EnumMap<ScreenshotStatus, BitSet> pagesByStatus;
+        private final int[] positionsByPageNumber;
+        private final Map<Integer, Integer> sparsePositionsByPageNumber;
+
+        private Pdf(String name, int[] rows, int[] pageNumbers, int mismatchedPageCount,
+                    EnumMap<ScreenshotStatus, BitSet> pagesByStatus, int[] positionsByPageNumber,
+                    Map<Integer, Integer> sparsePositionsByPageNumber) {
+            this.name = name;
+            this.rows = rows;
+            this.pageNumbers = pageNumbers;
+            this.mismatchedPageCount = mismatchedPageCount;
+            this.pagesByStatus = pagesByStatus;
+            this.positionsByPageNumber = positionsByPageNumber;
+            this.sparsePositionsByPageNumber = sparsePositionsByPageNumber;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPageCount() {
+            return rows.length;
+        }
+
+        public int getMismatchedPageCount() {
+            return mismatchedPageCount;
+        }
+
+        public boolean hasMismatch() {
+            return mismatchedPageCount > 0;
+        }
+
+        public int getPageNumber(int position) {
+            return pageNumbers[position];
+        }
+
+        /**
+         * @return the {@link ScreenshotTable} row of the page at the given position
+         */
+        public int getRow(int position) {
+            return rows[position];
+        }
+
+        /**
+         * @return the table row of the given page number, or -1 if this PDF has no such page
+         */
+        public int findPage(int pageNumber) {
+            int position = findPosition(pageNumber);
+            return position < 0 ? -1 : rows[position];
+        }
+
+        public int findPosition(int pageNumber) {
+            if (positionsByPageNumber != null) {
+                if (pageNumber < 0 || pageNumber >= positionsByPageNumber.length) {
+                    return -1;
+                }
+                return positionsByPageNumber[pageNumber] - 1;
+            }
+            Integer position = sparsePositionsByPageNumber.get(pageNumber);
+            return position != null ? position : -1;
+        }
+
+        public int countPagesWithStatus(ScreenshotStatus status) {
+            BitSet pages = pagesByStatus.get(status);
+            return pages != null ? pages.cardinality() : 0;
+        }
+
+        /**
+         * @return a copy of the positions of the pages with the given status
+         */
+        public BitSet getPagesWithStatus(ScreenshotStatus status) {
+            BitSet pages = pagesByStatus.get(status);
+            return pages != null ? (BitSet) pages.clone() : new BitSet();
+        }
+    }
+
+    private static final class PdfBuilder {
+        private final String name;
+        // Sort keys packing (pageNumber << 32 | insertion order) so pages sort as primitives and
+        // duplicate page numbers keep their original order.
+        private long[] sortKeys = new long[8];
+        private int[] rows = new int[8];
+        private int size;
+        private int mismatchedPageCount;
+
+        PdfBuilder(String name) {
+            this.name = name;
+        }
+
+        void add(int row, int pageNumber, boolean mismatch) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                sortKeys = Arrays.copyOf(sortKeys, size * 2);
+            }
+            rows[size] = row;
+            sortKeys[size] = ((long) pageNumber << 32) | size;
+            size++;
+            if (mismatch) {
+                mismatchedPageCount++;
+            }
+        }
+
+        Pdf build(ScreenshotTable table) {
+            long[] keys = Arrays.copyOf(sortKeys, size);
+            Arrays.sort(keys);
+
+            int[] sortedRows = new int[size];
+            int[] pageNumbers = new int[size];
+            EnumMap<ScreenshotStatus, BitSet> pagesByStatus = new EnumMap<>(ScreenshotStatus.class);
+            int maxPageNumber = 0;
+            boolean negativePage = false;
+            for (int position = 0; position < size; position++) {
+                int row = rows[(int) keys[position]];
+                int pageNumber = (int) (keys[position] >> 32);
+                sortedRows[position] = row;
+                pageNumbers[position] = pageNumber;
+                maxPageNumber = Math.max(maxPageNumber, pageNumber);
+                negativePage |= pageNumber < 0;
+                pagesByStatus.computeIfAbsent(table.getStatusEnum(row), k -> new BitSet(size)).set(position);
+            }
+
+            // Page numbers are normally 1..n, so a direct array gives O(1) lookups. Fall back to a
+            // hash map when the numbering is too sparse for an array to pay off.
+            int[] positionsByPageNumber = null;
+            Map<Integer, Integer> sparsePositions = null;
+            if (!negativePage && maxPageNumber <= size * 2 + 16) {
+                positionsByPageNumber = new int[maxPageNumber + 1];
+                for (int position = size - 1; position >= 0; position--) {
+                    positionsByPageNumber[pageNumbers[position]] = position + 1;
+                }
+            } else {
+                sparsePositions = new HashMap<>(size * 2);
+                for (int position = 0; position < size; position++) {
+                    sparsePositions.putIfAbsent(pageNumbers[position], position);
+                }
+            }
+            return new Pdf(name, sortedRows, pageNumbers, mismatchedPageCount, pagesByStatus,
+                    positionsByPageNumber, sparsePositions);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.lambdatest.models;
+
+import java.util.Locale;
+
+/**
+ * Comparison status reported by SmartUI for a single screenshot.
+ *
+ * <p>The API reports statuses as free-form strings ("Approved", "Changes found", ...). They are
+ * normalised here so callers can branch on them without string comparisons. Values the SDK does
+ * not know about map to {@link #UNKNOWN}; the raw value is always kept alongside by the callers.
+ */
+public enum ScreenshotStatus {
+    APPROVED,
+    REJECTED,
+    CHANGES_FOUND,
+    UNDER_REVIEW,
+    NEW,
+    UNKNOWN;
+
+    public static ScreenshotStatus fromValue(String value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT).replaceAll("[\\s_-]+", " ");
+        switch (normalized) {
+            case "approved":
+                return APPROVED;
+            case "rejected":
+                return REJECTED;
+            case "changes found":
+            case "changes detected":
+                return CHANGES_FOUND;
+            case "under review":
+                return UNDER_REVIEW;
+            case "new":
+                return NEW;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package io.github.lambdatest.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, column-oriented store for the screenshots of a build.
+ *
+ * <p>Builds with thousands of pages produce one {@link Screenshot} object per page, each holding
+ * fifteen references. This table keeps every field in its own array instead: text columns share
+ * interned instances for low-cardinality values (names, browsers, viewports), mismatch percentages
+ * live in a primitive {@code double[]} and statuses are dictionary-encoded into a {@code byte[]}.
+ *
+ * <p>Instances are immutable once built and safe to share between threads.
+ */
+public final class ScreenshotTable {
+    public static final int CAPTURED_IMAGE_ID = 0;
+    public static final int SCREENSHOT_NAME = 1;
+    public static final int CAPTURED_IMAGE = 2;
+    public static final int BASELINE_IMAGE = 3;
+    public static final int COMPARED_IMAGE = 4;
+    public static final int BROWSER_NAME = 5;
+    public static final int BROWSER_VERSION = 6;
+    public static final int VIEWPORT = 7;
+    public static final int OS = 8;
+    public static final int CAPTURED_IMAGE_TIMESTAMP = 9;
+    public static final int COMPARED_IMAGE_TIMESTAMP = 10;
+    public static final int COMPARED_IMAGE_ID = 11;
+    public static final int SHAREABLE_LINK = 12;
+    private static final int TEXT_COLUMN_COUNT = 13;
+
+    private static final Map<String, Integer> TEXT_COLUMNS_BY_FIELD = new HashMap<>();
+    private static final boolean[] INTERNED_COLUMNS = new boolean[TEXT_COLUMN_COUNT];
+
+    static {
+        TEXT_COLUMNS_BY_FIELD.put("captured_image_id", CAPTURED_IMAGE_ID);
+        TEXT_COLUMNS_BY_FIELD.put("screenshot_name", SCREENSHOT_NAME);
+        TEXT_COLUMNS_BY_FIELD.put("captured_image", CAPTURED_IMAGE);
+        TEXT_COLUMNS_BY_FIELD.put("baseline_image", BASELINE_IMAGE);
+        TEXT_COLUMNS_BY_FIELD.put("compared_image", COMPARED_IMAGE);
+        TEXT_COLUMNS_BY_FIELD.put("browser_name", BROWSER_NAME);
+        TEXT_COLUMNS_BY_FIELD.put("browser_version", BROWSER_VERSION);
+        TEXT_COLUMNS_BY_FIELD.put("viewport", VIEWPORT);
+        TEXT_COLUMNS_BY_FIELD.put("os", OS);
+        TEXT_COLUMNS_BY_FIELD.put("captured_image_timestamp", CAPTURED_IMAGE_TIMESTAMP);
+        TEXT_COLUMNS_BY_FIELD.put("compared_image_timestamp", COMPARED_IMAGE_TIMESTAMP);
+        TEXT_COLUMNS_BY_FIELD.put("compared_image_id", COMPARED_IMAGE_ID);
+        TEXT_COLUMNS_BY_FIELD.put("shareable_link", SHAREABLE_LINK);
+
+        INTERNED_COLUMNS[SCREENSHOT_NAME] = true;
+        INTERNED_COLUMNS[BROWSER_NAME] = true;
+        INTERNED_COLUMNS[BROWSER_VERSION] = true;
+        INTERNED_COLUMNS[VIEWPORT] = true;
+        INTERNED_COLUMNS[OS] = true;
+    }
+
+    private final int size;
+    private final String[][] text;
+    private final double[] mismatchPercentages;
+    private final byte[] statusCodes;
+    private final String[] statusValues;
+    private final ScreenshotStatus[] statusEnums;
+
+    private ScreenshotTable(int size, String[][] text, double[] mismatchPercentages, byte[] statusCodes,
+                            String[] statusValues) {
+        this.size = size;
+        this.text = text;
+        this.mismatchPercentages = mismatchPercentages;
+        this.statusCodes = statusCodes;
+        this.statusValues = statusValues;
+        this.statusEnums = new ScreenshotStatus[statusValues.length];
+        for (int i = 0; i < statusValues.length; i++) {
+            statusEnums[i] = ScreenshotStatus.fromValue(statusValues[i]);
+        }
+    }
+
+    /**
+     * Returns the text column index for a JSON field name of the build screenshots API, or -1 if the
+     * field is not stored as text.
+     */
+    public static int textColumnFor(String fieldName) {
+        Integer column = TEXT_COLUMNS_BY_FIELD.get(fieldName);
+        return column != null ? column : -1;
+    }
+
+    public static ScreenshotTable fromScreenshots(List<Screenshot> screenshots) {
+        Builder builder = new Builder();
+        if (screenshots == null) {
+            return builder.build();
+        }
+        for (Screenshot screenshot : screenshots) {
+            int row = builder.addRow();
+            builder.setText(row, CAPTURED_IMAGE_ID, screenshot.getCapturedImageId());
+            builder.setText(row, SCREENSHOT_NAME, screenshot.getScreenshotName());
+            builder.setText(row, CAPTURED_IMAGE, screenshot.getCapturedImage());
+            builder.setText(row, BASELINE_IMAGE, screenshot.getBaselineImage());
+            builder.setText(row, COMPARED_IMAGE, screenshot.getComparedImage());
+            builder.setText(row, BROWSER_NAME, screenshot.getBrowserName());
+            builder.setText(row, BROWSER_VERSION, screenshot.getBrowserVersion());
+            builder.setText(row, VIEWPORT, screenshot.getViewport());
+            builder.setText(row, OS, screenshot.getOs());
+            builder.setText(row, CAPTURED_IMAGE_TIMESTAMP, screenshot.getCapturedImageTimestamp());
+            builder.setText(row, COMPARED_IMAGE_TIMESTAMP, screenshot.getComparedImageTimestamp());
+            builder.setText(row, COMPARED_IMAGE_ID, screenshot.getComparedImageId());
+            builder.setText(row, SHAREABLE_LINK, screenshot.getShareableLink());
+            builder.setMismatchPercentage(row, screenshot.getMismatchPercentage());
+            builder.setStatus(row, screenshot.getStatus());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getText(int row, int column) {
+        return text[column][row];
+    }
+
+    public String getScreenshotName(int row) {
+        return text[SCREENSHOT_NAME][row];
+    }
+
+    public String getCapturedImageId(int row) {
+        return text[CAPTURED_IMAGE_ID][row];
+    }
+
+    public String getShareableLink(int row) {
+        return text[SHAREABLE_LINK][row];
+    }
+
+    public double getMismatchPercentage(int row) {
+        return mismatchPercentages[row];
+    }
+
+    public boolean hasMismatch(int row) {
+        return mismatchPercentages[row] > 0;
+    }
+
+    /**
+     * @return the status exactly as reported by the API
+     */
+    public String getStatus(int row) {
+        int code = statusCodes[row];
+        return code < 0 ? null : statusValues[code];
+    }
+
+    public ScreenshotStatus getStatusEnum(int row) {
+        int code = statusCodes[row];
+        return code < 0 ? ScreenshotStatus.UNKNOWN : statusEnums[code];
+    }
+
+    /**
+     * @return the distinct raw status values present in this table, in first-seen order
+     */
+    public List<String> getStatusValues() {
+        return Collections.unmodifiableList(Arrays.asList(statusValues));
+    }
+
+    public Screenshot toScreenshot(int row) {
+        Screenshot screenshot = new Screenshot();
+        screenshot.setCapturedImageId(text[CAPTURED_IMAGE_ID][row]);
+        screenshot.setScreenshotName(text[SCREENSHOT_NAME][row]);
+        screenshot.setCapturedImage(text[CAPTURED_IMAGE][row]);
+        screenshot.setBaselineImage(text[BASELINE_IMAGE][row]);
+        screenshot.setComparedImage(text[COMPARED_IMAGE][row]);
+        screenshot.setBrowserName(text[BROWSER_NAME][row]);
+        screenshot.setBrowserVersion(text[BROWSER_VERSION][row]);
+        screenshot.setViewport(text[VIEWPORT][row]);
+        screenshot.setOs(text[OS][row]);
+        screenshot.setCapturedImageTimestamp(text[CAPTURED_IMAGE_TIMESTAMP][row]);
+        screenshot.setComparedImageTimestamp(text[COMPARED_IMAGE_TIMESTAMP][row]);
+        screenshot.setComparedImageId(text[COMPARED_IMAGE_ID][row]);
+        screenshot.setShareableLink(text[SHAREABLE_LINK][row]);
+        screenshot.setMismatchPercentage(mismatchPercentages[row]);
+        screenshot.setStatus(getStatus(row));
+        return screenshot;
+    }
+
+    public List<Screenshot> toScreenshots() {
+        List<Screenshot> screenshots = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            screenshots.add(toScreenshot(row));
+        }
+        return screenshots;
+    }
+
+    /**
+     * Appends rows column by column. Not thread-safe; intended to be filled by a single parser.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int size;
+        private String[][] text = new String[TEXT_COLUMN_COUNT][INITIAL_CAPACITY];
+        private double[] mismatchPercentages = new double[INITIAL_CAPACITY];
+        private byte[] statusCodes = new byte[INITIAL_CAPACITY];
+        private final Map<String, String> internPool = new HashMap<>();
+        private final Map<String, Integer> statusDictionary = new HashMap<>();
+        private final List<String> statusValues = new ArrayList<>();
+
+        public int addRow() {
+            if (size == mismatchPercentages.length) {
+                grow();
+            }
+            statusCodes[size] = -1;
+            return size++;
+        }
+
+        public void setText(int row, int column, String value) {
+            if (value != null && INTERNED_COLUMNS[column]) {
+                String pooled = internPool.putIfAbsent(value, value);
+                if (pooled != null) {
+                    value = pooled;
+                }
+            }
+            text[column][row] = value;
+        }
+
+        public void setMismatchPercentage(int row, double mismatchPercentage) {
+            mismatchPercentages[row] = mismatchPercentage;
+        }
+
+        public void setStatus(int row, String status) {
+            if (status == null) {
+                statusCodes[row] = -1;
+                return;
+            }
+            Integer code = statusDictionary.get(status);
+            if (code == null) {
+                if (statusValues.size() >= Byte.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct screenshot statuses: " + statusValues.size());
+                }
+                code = statusValues.size();
+                statusValues.add(status);
+                statusDictionary.put(status, code);
+            }
+            statusCodes[row] = code.byteValue();
+        }
+
+        public ScreenshotTable build() {
+            String[][] trimmedText = new String[TEXT_COLUMN_COUNT][];
+            for (int column = 0; column < TEXT_COLUMN_COUNT; column++) {
+                trimmedText[column] = Arrays.copyOf(text[column], size);
+            }
+            return new ScreenshotTable(size, trimmedText, Arrays.copyOf(mismatchPercentages, size),
+                    Arrays.copyOf(statusCodes, size), statusValues.toArray(new String[0]));
+        }
+
+        private void grow() {
+            int capacity = mismatchPercentages.length * 2;
+            for (int column = 0; column < TEXT_COLUMN_COUNT; column++) {
+                text[column] = Arrays.copyOf(text[column], capacity);
+            }
+            mismatchPercentages = Arrays.copyOf(mismatchPercentages, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.lambdatest.models;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typed view over the results returned by the SmartUI CLI for a build or a session.
+ *
+ * <p>The raw response is kept as received and only parsed, in a single streaming pass, the first
+ * time a query needs it. Parsing builds indices by snapshot name, by variant and by status, so
+ * questions such as {@link #hasChanges()}, {@link #getSnapshot(String)} or
+ * {@link #countByStatus(ScreenshotStatus)} do not walk the whole result again.
+ *
+ * <p>Instances are safe to share between threads; the lazy parse happens at most once.
+ */
+public class SnapshotResults {
+    private final String rawJson;
+    private volatile Index index;
+
+    public SnapshotResults(String rawJson) {
+        this.rawJson = rawJson;
+    }
+
+    /**
+     * @return the response exactly as received from the CLI server
+     */
+    public String getRawJson() {
+        return rawJson;
+    }
+
+    /**
+     * Parses the raw response into an org.json object, for callers of the untyped API.
+     */
+    public JSONObject toJSONObject() {
+        return new JSONObject(rawJson);
+    }
+
+    /**
+     * @return the result type from the summary, {@code "build"} or {@code "session"}, or null if absent
+     */
+    public String getType() {
+        Object type = index().summary.get("type");
+        return type != null ? type.toString() : null;
+    }
+
+    /**
+     * @return the summary section of the response as plain values
+     */
+    public Map<String, Object> getSummary() {
+        return index().summary;
+    }
+
+    public boolean hasChanges() {
+        return index().changedCount > 0;
+    }
+
+    public int getChangedCount() {
+        return index().changedCount;
+    }
+
+    public Set<String> getSnapshotNames() {
+        return index().byName.keySet();
+    }
+
+    public int getSnapshotCount() {
+        return index().byName.size();
+    }
+
+    /**
+     * @return all variant results in response order
+     */
+    public List<SnapshotVariantResult> getResults() {
+        return index().all;
+    }
+
+    /**
+     * @return the variant results of the given snapshot, or an empty list if it is not part of the results
+     */
+    public List<SnapshotVariantResult> getSnapshot(String snapshotName) {
+        List<SnapshotVariantResult> results = index().byName.get(snapshotName);
+        return results != null ? results : Collections.<SnapshotVariantResult>emptyList();
+    }
+
+    /**
+     * @return the result of the given snapshot for one variant, or null if there is none
+     * @see SnapshotVariantResult#variantKey(String, String, String)
+     */
+    public SnapshotVariantResult getSnapshot(String snapshotName, String variant) {
+        for (SnapshotVariantResult result : getSnapshot(snapshotName)) {
+            if (result.getVariant().equals(variant)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    public Set<String> getVariants() {
+        return index().byVariant.keySet();
+    }
+
+    public List<SnapshotVariantResult> getVariant(String variant) {
+        List<SnapshotVariantResult> results = index().byVariant.get(variant);
+        return results != null ? results : Collections.<SnapshotVariantResult>emptyList();
+    }
+
+    public List<SnapshotVariantResult> getByStatus(ScreenshotStatus status) {
+        List<SnapshotVariantResult> results = index().byStatus.get(status);
+        return results != null ? results : Collections.<SnapshotVariantResult>emptyList();
+    }
+
+    public int countByStatus(ScreenshotStatus status) {
+        return getByStatus(status).size();
+    }
+
+    public Map<ScreenshotStatus, Integer> getStatusCounts() {
+        Map<ScreenshotStatus, Integer> counts = new EnumMap<>(ScreenshotStatus.class);
+        for (Map.Entry<ScreenshotStatus, List<SnapshotVariantResult>> entry : index().byStatus.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = SnapshotResultsParser.parse(rawJson);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    static final class Index {
+        final List<SnapshotVariantResult> all;
+        final Map<String, List<SnapshotVariantResult>> byName;
+        final Map<String, List<SnapshotVariantResult>> byVariant;
+        final Map<ScreenshotStatus, List<SnapshotVariantResult>> byStatus;
+        final Map<String, Object> summary;
+        final int changedCount;
+
+        Index(List<SnapshotVariantResult> all, Map<String, List<SnapshotVariantResult>> byName,
+              Map<String, List<SnapshotVariantResult>> byVariant,
+              Map<ScreenshotStatus, List<SnapshotVariantResult>> byStatus, Map<String, Object> summary,
+              int changedCount) {
+            this.all = all;
+            this.byName = byName;
+            this.byVariant = byVariant;
+            this.byStatus = byStatus;
+            this.summary = summary;
+            this.changedCount = changedCount;
+        }
+    }
+}
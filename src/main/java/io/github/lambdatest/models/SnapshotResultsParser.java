@@ -0,0 +1,257 @@
+package io.github.lambdatest.models;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming parser behind {@link SnapshotResults}. Reads the CLI results response token by token
+ * and fills the name, variant and status indices as it goes.
+ *
+ * <p>Screenshots may be grouped by name ({@code {"name": [variants...]}}) or listed flat, and the
+ * payload may be wrapped in a {@code data} object; all of these shapes are accepted.
+ */
+final class SnapshotResultsParser {
+    private static final Gson gson = new Gson();
+
+    private final List<SnapshotVariantResult> all = new ArrayList<>();
+    private final Map<String, List<SnapshotVariantResult>> byName = new LinkedHashMap<>();
+    private final Map<String, List<SnapshotVariantResult>> byVariant = new LinkedHashMap<>();
+    private final Map<ScreenshotStatus, List<SnapshotVariantResult>> byStatus = new EnumMap<>(ScreenshotStatus.class);
+    private final Map<String, String> internPool = new HashMap<>();
+    private Map<String, Object> summary = Collections.emptyMap();
+    private int changedCount;
+
+    private SnapshotResultsParser() {
+    }
+
+    static SnapshotResults.Index parse(String json) {
+        SnapshotResultsParser parser = new SnapshotResultsParser();
+        if (json != null && !json.trim().isEmpty()) {
+            try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                reader.setLenient(true);
+                parser.readRoot(reader);
+            } catch (IOException | JsonParseException | IllegalStateException | NumberFormatException e) {
+                throw new IllegalStateException("Failed to parse SmartUI results: " + e.getMessage(), e);
+            }
+        }
+        return parser.toIndex();
+    }
+
+    private void readRoot(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "data":
+                    readRoot(reader);
+                    break;
+                case "screenshots":
+                    readScreenshots(reader);
+                    break;
+                case "summary":
+                    readSummary(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readSummary(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        Map<String, Object> values = gson.fromJson(reader, Map.class);
+        if (values != null) {
+            summary = Collections.unmodifiableMap(values);
+        }
+    }
+
+    private void readScreenshots(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            readVariants(reader, null);
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String snapshotName = reader.nextName();
+                JsonToken value = reader.peek();
+                if (value == JsonToken.BEGIN_ARRAY) {
+                    readVariants(reader, snapshotName);
+                } else if (value == JsonToken.BEGIN_OBJECT) {
+                    readVariant(reader, snapshotName);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private void readVariants(JsonReader reader, String snapshotName) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readVariant(reader, snapshotName);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+
+    private void readVariant(JsonReader reader, String groupName) throws IOException {
+        String snapshotName = null;
+        String browserName = null;
+        String browserVersion = null;
+        String deviceName = null;
+        String os = null;
+        String viewport = null;
+        String status = null;
+        double mismatchPercentage = 0;
+        String capturedImageId = null;
+        String shareableLink = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "screenshot_name":
+                case "screenshotName":
+                case "name":
+                    snapshotName = readText(reader);
+                    break;
+                case "browser_name":
+                case "browserName":
+                case "browser":
+                    browserName = intern(readText(reader));
+                    break;
+                case "browser_version":
+                case "browserVersion":
+                    browserVersion = intern(readText(reader));
+                    break;
+                case "device_name":
+                case "deviceName":
+                case "device":
+                    deviceName = intern(readText(reader));
+                    break;
+                case "os":
+                    os = intern(readText(reader));
+                    break;
+                case "viewport":
+                    viewport = intern(readText(reader));
+                    break;
+                case "status":
+                    status = intern(readText(reader));
+                    break;
+                case "mismatch_percentage":
+                case "mismatchPercentage":
+                    mismatchPercentage = readDouble(reader);
+                    break;
+                case "captured_image_id":
+                case "capturedImageId":
+                    capturedImageId = readText(reader);
+                    break;
+                case "shareable_link":
+                case "shareableLink":
+                    shareableLink = readText(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        String name = intern(groupName != null ? groupName : snapshotName);
+        add(new SnapshotVariantResult(name, browserName, browserVersion, deviceName, os, viewport, status,
+                mismatchPercentage, capturedImageId, shareableLink));
+    }
+
+    private void add(SnapshotVariantResult result) {
+        all.add(result);
+        byName.computeIfAbsent(result.getSnapshotName() != null ? result.getSnapshotName() : "", k -> new ArrayList<>()).add(result);
+        byVariant.computeIfAbsent(result.getVariant(), k -> new ArrayList<>()).add(result);
+        byStatus.computeIfAbsent(result.getStatusEnum(), k -> new ArrayList<>()).add(result);
+        if (result.isChanged()) {
+            changedCount++;
+        }
+    }
+
+    private SnapshotResults.Index toIndex() {
+        return new SnapshotResults.Index(
+                Collections.unmodifiableList(all),
+                Collections.unmodifiableMap(freeze(byName)),
+                Collections.unmodifiableMap(freeze(byVariant)),
+                Collections.unmodifiableMap(freeze(byStatus)),
+                summary,
+                changedCount);
+    }
+
+    private static <K> Map<K, List<SnapshotVariantResult>> freeze(Map<K, List<SnapshotVariantResult>> index) {
+        for (Map.Entry<K, List<SnapshotVariantResult>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return index;
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = internPool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    private static String readText(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static double readDouble(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return reader.nextDouble();
+            case STRING:
+                String value = reader.nextString().trim();
+                return value.isEmpty() ? 0 : Double.parseDouble(value);
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.lambdatest.models;
+
+/**
+ * Comparison result of one variant (browser/device and viewport) of a snapshot, as reported by
+ * the SmartUI CLI results endpoint.
+ */
+public class SnapshotVariantResult {
+    private final String snapshotName;
+    private final String variant;
+    private final String browserName;
+    private final String browserVersion;
+    private final String deviceName;
+    private final String os;
+    private final String viewport;
+    private final String status;
+    private final ScreenshotStatus statusEnum;
+    private final double mismatchPercentage;
+    private final String capturedImageId;
+    private final String shareableLink;
+
+    public SnapshotVariantResult(String snapshotName, String browserName, String browserVersion, String deviceName,
+                                 String os, String viewport, String status, double mismatchPercentage,
+                                 String capturedImageId, String shareableLink) {
+        this.snapshotName = snapshotName;
+        this.browserName = browserName;
+        this.browserVersion = browserVersion;
+        this.deviceName = deviceName;
+        this.os = os;
+        this.viewport = viewport;
+        this.status = status;
+        this.statusEnum = ScreenshotStatus.fromValue(status);
+        this.mismatchPercentage = mismatchPercentage;
+        this.capturedImageId = capturedImageId;
+        this.shareableLink = shareableLink;
+        this.variant = variantKey(browserName, deviceName, viewport);
+    }
+
+    /**
+     * Builds the key used to group results by variant: {@code <device or browser>/<viewport>}.
+     */
+    public static String variantKey(String browserName, String deviceName, String viewport) {
+        String target = deviceName != null && !deviceName.isEmpty() ? deviceName : browserName;
+        return (target != null ? target : "") + "/" + (viewport != null ? viewport : "");
+    }
+
+    public String getSnapshotName() {
+        return snapshotName;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    public String getBrowserName() {
+        return browserName;
+    }
+
+    public String getBrowserVersion() {
+        return browserVersion;
+    }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    public String getOs() {
+        return os;
+    }
+
+    public String getViewport() {
+        return viewport;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public ScreenshotStatus getStatusEnum() {
+        return statusEnum;
+    }
+
+    public double getMismatchPercentage() {
+        return mismatchPercentage;
+    }
+
+    public String getCapturedImageId() {
+        return capturedImageId;
+    }
+
+    public String getShareableLink() {
+        return shareableLink;
+    }
+
+    /**
+     * @return true if this variant differs from its baseline
+     */
+    public boolean isChanged() {
+        return mismatchPercentage > 0 || statusEnum == ScreenshotStatus.CHANGES_FOUND;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotVariantResult{" +
+                "snapshotName='" + snapshotName + '\'' +
+                ", variant='" + variant + '\'' +
+                ", status='" + status + '\'' +
+                ", mismatchPercentage=" + mismatchPercentage +
+                '}';
+    }
+}
@@ -30,6 +30,29 @@ public class UploadSnapshotRequest {
     public UploadSnapshotRequest() {
     }
 
+    // Copy constructor, used to give each chunk upload its own request
+    public UploadSnapshotRequest(UploadSnapshotRequest other) {
+        this.browserName = other.browserName;
+        this.os = other.os;
+        this.viewport = other.viewport;
+        this.projectToken = other.projectToken;
+        this.buildId = other.buildId;
+        this.buildName = other.buildName;
+        this.screenshotName = other.screenshotName;
+        this.screenshotHash = other.screenshotHash;
+        this.deviceName = other.deviceName;
+        this.cropFooter = other.cropFooter;
+        this.cropStatusBar = other.cropStatusBar;
+        this.fullPage = other.fullPage;
+        this.isLastChunk = other.isLastChunk;
+        this.chunkCount = other.chunkCount;
+        this.uploadChunk = other.uploadChunk;
+        this.navigationBarHeight = other.navigationBarHeight;
+        this.statusBarHeight = other.statusBarHeight;
+        this.ignoreBoxes = other.ignoreBoxes;
+        this.selectBoxes = other.selectBoxes;
+    }
+
     // All Args constructor
     public UploadSnapshotRequest(String screenshot, String browserName, String os, String viewport,
                                  String projectToken, String buildId, String buildName,
@@ -0,0 +1,162 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.constants.Constants;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts the number of concurrent uploads to a destination with additive increase, multiplicative
+ * decrease (AIMD).
+ *
+ * <p>Each completed upload grows the limit by {@code 1 / limit}, i.e. by about one per round of
+ * uploads, as long as its latency stays within {@value #LATENCY_TOLERANCE} times the lowest latency
+ * seen recently. Slower uploads shrink the limit by {@value #LATENCY_BACKOFF}, and a throttling
+ * response (429 or 503) halves it and pauses new uploads for the server's {@code Retry-After}.
+ *
+ * <p>One limiter exists per destination and process, see {@link #forDestination(String)}. The current
+ * limit is published as the {@code smartui.upload.<destination>.limit} gauge.
+ */
+public class AdaptiveConcurrencyLimiter {
+    public static final int DEFAULT_INITIAL_LIMIT = 8;
+    public static final int DEFAULT_MAX_LIMIT = 64;
+    public static final long DEFAULT_RETRY_AFTER_MS = 1000;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double THROTTLE_BACKOFF = 0.5;
+    // The latency baseline slowly forgets its minimum, so a permanently slower host is accepted eventually
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private static final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final String destination;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight;
+    private double baselineNanos;
+    private long pausedUntilNanos;
+
+    public AdaptiveConcurrencyLimiter(String destination, int initialLimit, int maxLimit) {
+        this.destination = destination;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.limit = Math.max(1, Math.min(initialLimit, this.maxLimit));
+        publish();
+    }
+
+    public static AdaptiveConcurrencyLimiter forDestination(String destination) {
+        return limiters.computeIfAbsent(destination,
+                name -> new AdaptiveConcurrencyLimiter(name, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT));
+    }
+
+    /**
+     * Waits until an upload may start: the limit has room and no {@code Retry-After} pause is active.
+     */
+    public synchronized Permit acquire() throws InterruptedException {
+        while (true) {
+            long pause = pausedUntilNanos - System.nanoTime();
+            if (pause > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, pause);
+            } else if (inFlight >= (int) limit) {
+                wait();
+            } else {
+                break;
+            }
+        }
+        inFlight++;
+        return new Permit(System.nanoTime());
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized void onSuccess(long latencyNanos) {
+        if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+            baselineNanos = latencyNanos;
+        } else {
+            baselineNanos += BASELINE_DRIFT * (latencyNanos - baselineNanos);
+        }
+        if (latencyNanos <= LATENCY_TOLERANCE * baselineNanos) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        } else {
+            limit = Math.max(1, limit * LATENCY_BACKOFF);
+        }
+        finish();
+    }
+
+    private synchronized void onThrottled(long retryAfterMillis) {
+        limit = Math.max(1, limit * THROTTLE_BACKOFF);
+        long pause = TimeUnit.MILLISECONDS.toNanos(retryAfterMillis >= 0 ? retryAfterMillis : DEFAULT_RETRY_AFTER_MS);
+        pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + pause);
+        finish();
+    }
+
+    private synchronized void onDropped() {
+        finish();
+    }
+
+    private void finish() {
+        inFlight--;
+        publish();
+        notifyAll();
+    }
+
+    private void publish() {
+        SmartUIMetrics.setGauge(Constants.Metrics.UPLOAD_LIMIT_PREFIX + destination + ".limit", (long) limit);
+    }
+
+    /**
+     * Slot of one upload. Exactly one of the outcome methods must be called.
+     */
+    public final class Permit {
+        private long startedAt;
+        private boolean done;
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Restarts the latency sample, for uploads that wait for something else once admitted.
+         */
+        public void restartClock() {
+            startedAt = System.nanoTime();
+        }
+
+        public void success() {
+            if (complete()) {
+                onSuccess(System.nanoTime() - startedAt);
+            }
+        }
+
+        /**
+         * @param retryAfterMillis delay requested by the server, -1 for the default
+         */
+        public void throttled(long retryAfterMillis) {
+            if (complete()) {
+                onThrottled(retryAfterMillis);
+            }
+        }
+
+        /**
+         * Releases the slot without a latency sample, for failures unrelated to the server's load.
+         */
+        public void dropped() {
+            if (complete()) {
+                onDropped();
+            }
+        }
+
+        private synchronized boolean complete() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            return true;
+        }
+    }
+}
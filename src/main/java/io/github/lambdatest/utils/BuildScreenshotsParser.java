@@ -0,0 +1,179 @@
+package io.github.lambdatest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.github.lambdatest.models.BuildInfo;
+import io.github.lambdatest.models.BuildScreenshotsResponse;
+import io.github.lambdatest.models.ProjectInfo;
+import io.github.lambdatest.models.ScreenshotTable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass streaming parser for the build screenshots API response.
+ *
+ * <p>The response is read token by token straight from the HTTP entity stream. Screenshots go
+ * directly into a {@link ScreenshotTable} without an intermediate string, DOM tree or POJO list.
+ * The {@code build} object is decoded as soon as it is encountered, so a poll of a build that is
+ * still running can stop reading without consuming the (potentially large) screenshot array.
+ */
+public class BuildScreenshotsParser {
+    private static final String BUILD_STATUS_RUNNING = "running";
+    private static final Gson gson = new Gson();
+
+    /**
+     * Result of one parse. {@link #isComplete()} is false when parsing stopped early because the
+     * build was still running.
+     */
+    public static class Result {
+        private final BuildScreenshotsResponse response;
+        private final boolean complete;
+
+        Result(BuildScreenshotsResponse response, boolean complete) {
+            this.response = response;
+            this.complete = complete;
+        }
+
+        public BuildScreenshotsResponse getResponse() {
+            return response;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public boolean isBuildRunning() {
+            BuildInfo build = response.getBuild();
+            return build != null && BUILD_STATUS_RUNNING.equals(build.getBuildStatus());
+        }
+    }
+
+    public static Result parse(InputStream in, boolean stopIfRunning) throws IOException {
+        return parse(new InputStreamReader(in, StandardCharsets.UTF_8), stopIfRunning);
+    }
+
+    public static Result parse(String json) throws IOException {
+        return parse(new StringReader(json), false);
+    }
+
+    private static Result parse(Reader source, boolean stopIfRunning) throws IOException {
+        BuildScreenshotsResponse response = new BuildScreenshotsResponse();
+        ScreenshotTable.Builder table = new ScreenshotTable.Builder();
+        boolean sawScreenshots = false;
+
+        // The reader is deliberately not closed when stopping early: closing an HTTP entity stream
+        // drains the rest of the body, which is exactly the work an early stop avoids. The caller
+        // closes the response instead, which discards the connection.
+        JsonReader reader = new JsonReader(source);
+        try {
+            reader.setLenient(true);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new IOException("Unexpected build screenshots response, expected a JSON object but found " + reader.peek());
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "build":
+                        response.setBuild(gson.fromJson(reader, BuildInfo.class));
+                        if (stopIfRunning && response.getBuild() != null
+                                && BUILD_STATUS_RUNNING.equals(response.getBuild().getBuildStatus())) {
+                            return new Result(response, false);
+                        }
+                        break;
+                    case "project":
+                        response.setProject(gson.fromJson(reader, ProjectInfo.class));
+                        break;
+                    case "screenshots":
+                        readScreenshots(reader, table);
+                        sawScreenshots = true;
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            reader.close();
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+            throw new IOException("Failed to parse build screenshots response: " + e.getMessage(), e);
+        }
+
+        if (sawScreenshots) {
+            response.setScreenshotTable(table.build());
+        }
+        return new Result(response, true);
+    }
+
+    private static void readScreenshots(JsonReader reader, ScreenshotTable.Builder table) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            int row = table.addRow();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if ("mismatch_percentage".equals(field)) {
+                    table.setMismatchPercentage(row, readDouble(reader));
+                } else if ("status".equals(field)) {
+                    table.setStatus(row, readText(reader));
+                } else {
+                    int column = ScreenshotTable.textColumnFor(field);
+                    if (column >= 0) {
+                        table.setText(row, column, readText(reader));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    private static String readText(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static double readDouble(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return reader.nextDouble();
+            case STRING:
+                String value = reader.nextString().trim();
+                return value.isEmpty() ? 0 : Double.parseDouble(value);
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.constants.Constants;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide governor of the upload bytes the SDK holds in memory at once.
+ *
+ * <p>Producers reserve the bytes they buffer for a payload before sending it and release them once
+ * done; a reservation waits while it would exceed the global limit or the limit of its destination.
+ * A payload larger than a limit is reduced to that limit, so it still proceeds, alone. A serialized DOM
+ * is held in memory whole, while screenshots and PDFs are streamed from their files, so their uploads
+ * only reserve the copy buffer of {@link StreamingFileBody}. An app screenshot is reserved from before
+ * its capture, which decodes the whole image in memory, until its chunks are uploaded or journaled; the
+ * snapshot waits for its first image only, and grows its reservation for the following chunks, since a
+ * holder waiting for more could wait on another holder forever.
+ *
+ * <p>The global limit defaults to {@value #DEFAULT_LIMIT_MB} MB and is set with
+ * {@code SMARTUI_BYTE_BUDGET_MB}; destinations default to the global limit and are set with
+ * {@code SMARTUI_BYTE_BUDGET_<DESTINATION>_MB}, e.g. {@code SMARTUI_BYTE_BUDGET_PDF_MB}. Bytes in
+ * flight, waiting producers and wait times are published per destination through {@link SmartUIMetrics}.
+ */
+public class ByteBudget {
+    public static final String SCREENSHOT = "screenshot";
+    public static final String PDF = "pdf";
+    public static final String DOM = "dom";
+    public static final long DEFAULT_LIMIT_MB = 256;
+
+    private static final ByteBudget INSTANCE = new ByteBudget(readLimit("SMARTUI_BYTE_BUDGET_MB", DEFAULT_LIMIT_MB * 1024 * 1024));
+
+    private final Map<String, Long> limits = new HashMap<>();
+    private final Map<String, Long> inFlight = new HashMap<>();
+    private long globalLimit;
+    private long globalInFlight;
+
+    ByteBudget(long globalLimit) {
+        this.globalLimit = Math.max(1, globalLimit);
+    }
+
+    public static ByteBudget getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void setGlobalLimit(long bytes) {
+        globalLimit = Math.max(1, bytes);
+        notifyAll();
+    }
+
+    public synchronized void setLimit(String destination, long bytes) {
+        limits.put(destination, Math.max(1, bytes));
+        notifyAll();
+    }
+
+    public synchronized long getLimit(String destination) {
+        Long limit = limits.get(destination);
+        if (limit == null) {
+            limit = readLimit("SMARTUI_BYTE_BUDGET_" + destination.toUpperCase(Locale.ROOT) + "_MB", globalLimit);
+            limits.put(destination, limit);
+        }
+        return Math.min(limit, globalLimit);
+    }
+
+    public synchronized long getInFlight(String destination) {
+        return inFlight.getOrDefault(destination, 0L);
+    }
+
+    /**
+     * Reserves {@code bytes} for a destination, waiting until they fit within the limits.
+     * @return the reservation, to be closed once the payload was sent or dropped
+     */
+    public Reservation reserve(String destination, long bytes) throws InterruptedException {
+        String waitingGauge = Constants.Metrics.BUDGET_PREFIX + destination + ".waiting";
+        long startedAt = System.nanoTime();
+        long granted;
+        synchronized (this) {
+            granted = Math.max(0, Math.min(bytes, getLimit(destination)));
+            if (!fits(destination, granted)) {
+                SmartUIMetrics.addToGauge(waitingGauge, 1);
+                try {
+                    while (!fits(destination, granted)) {
+                        wait();
+                        granted = Math.max(0, Math.min(bytes, getLimit(destination)));
+                    }
+                } finally {
+                    SmartUIMetrics.addToGauge(waitingGauge, -1);
+                }
+            }
+            globalInFlight += granted;
+            inFlight.merge(destination, granted, Long::sum);
+            publish(destination);
+        }
+        SmartUIMetrics.recordDuration(Constants.Metrics.BUDGET_PREFIX + destination + ".wait.ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return new Reservation(destination, granted);
+    }
+
+    private boolean fits(String destination, long bytes) {
+        long destinationInFlight = inFlight.getOrDefault(destination, 0L);
+        // Something must always be allowed to proceed, even when it alone fills the budget
+        return (globalInFlight == 0 || globalInFlight + bytes <= globalLimit)
+                && (destinationInFlight == 0 || destinationInFlight + bytes <= getLimit(destination));
+    }
+
+    private synchronized void grow(String destination, long bytes) {
+        globalInFlight += bytes;
+        inFlight.merge(destination, bytes, Long::sum);
+        publish(destination);
+    }
+
+    private synchronized void release(String destination, long bytes) {
+        globalInFlight -= bytes;
+        inFlight.merge(destination, -bytes, Long::sum);
+        publish(destination);
+        notifyAll();
+    }
+
+    private void publish(String destination) {
+        SmartUIMetrics.setGauge(Constants.Metrics.BUDGET_PREFIX + "inflight.bytes", globalInFlight);
+        SmartUIMetrics.setGauge(Constants.Metrics.BUDGET_PREFIX + destination + ".inflight.bytes", inFlight.get(destination));
+    }
+
+    private static long readLimit(String envName, long defaultBytes) {
+        String value = System.getenv(envName);
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Math.max(1, Long.parseLong(value.trim())) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                // Use the default limit
+            }
+        }
+        return defaultBytes;
+    }
+
+    /**
+     * Bytes reserved in a {@link ByteBudget}, released by {@link #close()}.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final String destination;
+        private long bytes;
+        private boolean released;
+
+        private Reservation(String destination, long bytes) {
+            this.destination = destination;
+            this.bytes = bytes;
+        }
+
+        public synchronized long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Adds bytes to the reservation without waiting, which may exceed the limits.
+         */
+        public void grow(long more) {
+            synchronized (this) {
+                if (released || more <= 0) {
+                    return;
+                }
+                bytes += more;
+            }
+            ByteBudget.this.grow(destination, more);
+        }
+
+        /**
+         * Releases part of the reservation, e.g. once one of the payloads it covers was sent.
+         */
+        public void shrink(long fewer) {
+            long releasedBytes;
+            synchronized (this) {
+                if (released || fewer <= 0) {
+                    return;
+                }
+                releasedBytes = Math.min(fewer, bytes);
+                bytes -= releasedBytes;
+            }
+            release(destination, releasedBytes);
+        }
+
+        @Override
+        public void close() {
+            long releasedBytes;
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                releasedBytes = bytes;
+                bytes = 0;
+            }
+            release(destination, releasedBytes);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package io.github.lambdatest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Locates the SmartUI CLI without spawning a process.
+ *
+ * <p>The resolved binary path, its version and the modification time of the binary are persisted in
+ * {@code ~/.smartui/cli-cache.json} (or {@code $SMARTUI_CACHE_DIR/cli-cache.json}). Entries are keyed by
+ * a hash of the {@code PATH}, {@code PATHEXT} and working directory the CLI was resolved with, so jobs on
+ * one host with different {@code PATH}s, e.g. different nvm versions, each get the CLI of their own
+ * {@code PATH}. A cached entry is trusted as long as the binary still exists with the same modification
+ * time, which costs a single file stat. Otherwise the {@code PATH} is scanned in Java and the version is
+ * read from the CLI's {@code package.json}.
+ *
+ * <p>If the CLI is missing, or does not match the pinned version, it is installed with
+ * {@code npm install -g}, streaming npm's output to the log and bounded by a timeout.
+ * {@link #resolveAsync(String, boolean)} does the same in the background so that it can overlap with
+ * other test setup.
+ */
+public class CliResolver {
+    public static final String CLI_COMMAND = "smartui";
+    public static final String CLI_PACKAGE = "@lambdatest/smartui-cli";
+    public static final long DEFAULT_INSTALL_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final String CACHE_FILE_NAME = "cli-cache.json";
+    // Bounds the cache file on hosts whose jobs keep changing the PATH
+    private static final int MAX_CACHE_ENTRIES = 64;
+    private static final Type CACHE_TYPE = new TypeToken<Map<String, CliInstallation>>() {}.getType();
+
+    private static final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private static final Gson gson = new Gson();
+    private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win");
+
+    private final Path cacheFile;
+    private final long installTimeoutMs;
+
+    public CliResolver() {
+        this(defaultCacheFile(), DEFAULT_INSTALL_TIMEOUT_MS);
+    }
+
+    public CliResolver(Path cacheFile, long installTimeoutMs) {
+        this.cacheFile = cacheFile;
+        this.installTimeoutMs = installTimeoutMs;
+    }
+
+    public static Path defaultCacheFile() {
+        String dir = System.getenv("SMARTUI_CACHE_DIR");
+        if (dir == null || dir.trim().isEmpty()) {
+            dir = System.getProperty("user.home") + File.separator + ".smartui";
+        }
+        return Paths.get(dir, CACHE_FILE_NAME);
+    }
+
+    /**
+     * Locates the CLI, installing it if needed.
+     * @param pinnedVersion exact version the CLI must have, or null to accept any installed version
+     * @param autoInstall whether a missing or mismatching CLI may be installed
+     * @throws Exception if the CLI is not available and could not be installed
+     */
+    public CliInstallation resolve(String pinnedVersion, boolean autoInstall) throws Exception {
+        CliInstallation installation = find();
+        if (installation != null && installation.getVersion() == null && pinnedVersion != null) {
+            log.warning("Could not determine the version of the SmartUI CLI at " + installation.getPath() +
+                    ", using it without checking pinned version " + pinnedVersion);
+            return installation;
+        }
+        if (installation != null && (pinnedVersion == null || pinnedVersion.equals(installation.getVersion()))) {
+            return installation;
+        }
+        if (!autoInstall) {
+            throw new Exception(installation == null
+                    ? "SmartUI CLI is not installed and auto install is disabled"
+                    : "SmartUI CLI " + installation.getVersion() + " does not match pinned version " + pinnedVersion);
+        }
+
+        install(pinnedVersion != null ? pinnedVersion : "latest");
+        invalidate();
+        installation = find();
+        if (installation == null) {
+            throw new Exception("SmartUI CLI was installed but could not be found on the PATH");
+        }
+        if (pinnedVersion != null && installation.getVersion() != null && !pinnedVersion.equals(installation.getVersion())) {
+            log.warning("SmartUI CLI on the PATH is " + installation.getVersion() + " after installing " + pinnedVersion);
+        }
+        return installation;
+    }
+
+    /**
+     * Runs {@link #resolve(String, boolean)} on a background daemon thread.
+     */
+    public CompletableFuture<CliInstallation> resolveAsync(String pinnedVersion, boolean autoInstall) {
+        CompletableFuture<CliInstallation> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(resolve(pinnedVersion, autoInstall));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, "smartui-cli-resolver");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    /**
+     * @return the installed CLI from the cache or the PATH, or null if it is not installed
+     */
+    public CliInstallation find() {
+        String key = lookupKey();
+        CliInstallation cached = readCache().get(key);
+        if (cached != null) {
+            File binary = new File(cached.getPath());
+            if (binary.isFile() && binary.lastModified() == cached.getModifiedAt()) {
+                return cached;
+            }
+            log.fine("Cached SmartUI CLI location is stale: " + cached.getPath());
+        }
+
+        File binary = scanPath();
+        if (binary == null) {
+            return null;
+        }
+        CliInstallation installation = new CliInstallation(binary.getAbsolutePath(), readVersion(binary), binary.lastModified());
+        writeCache(key, installation);
+        log.fine("Resolved SmartUI CLI " + installation.getVersion() + " at " + installation.getPath());
+        return installation;
+    }
+
+    public void invalidate() {
+        try {
+            Files.deleteIfExists(cacheFile);
+        } catch (IOException e) {
+            log.fine("Failed to delete SmartUI CLI cache: " + e.getMessage());
+        }
+    }
+
+    private File scanPath() {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        if (WINDOWS) {
+            String extensions = System.getenv("PATHEXT");
+            for (String extension : (extensions != null ? extensions : ".COM;.EXE;.BAT;.CMD").split(";")) {
+                if (!extension.isEmpty()) {
+                    names.add(CLI_COMMAND + extension.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        names.add(CLI_COMMAND);
+
+        for (String dir : path.split(File.pathSeparator)) {
+            if (dir.isEmpty()) {
+                continue;
+            }
+            for (String name : names) {
+                File candidate = new File(dir, name);
+                if (candidate.isFile() && (WINDOWS || candidate.canExecute())) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the CLI version from its package.json: next to the real binary for symlinked npm installs, or
+     * under {@code node_modules} next to the shim for Windows installs.
+     */
+    private static String readVersion(File binary) {
+        List<Path> candidates = new ArrayList<>();
+        try {
+            Path real = binary.toPath().toRealPath();
+            for (Path dir = real.getParent(); dir != null; dir = dir.getParent()) {
+                candidates.add(dir.resolve("package.json"));
+            }
+        } catch (IOException e) {
+            // Fall back to the node_modules layout below
+        }
+        Path binDir = binary.getAbsoluteFile().toPath().getParent();
+        if (binDir != null) {
+            candidates.add(binDir.resolve("node_modules").resolve(CLI_PACKAGE).resolve("package.json"));
+            if (binDir.getParent() != null) {
+                candidates.add(binDir.getParent().resolve("lib").resolve("node_modules").resolve(CLI_PACKAGE).resolve("package.json"));
+            }
+        }
+
+        for (Path candidate : candidates) {
+            if (!Files.isRegularFile(candidate)) {
+                continue;
+            }
+            try {
+                JsonElement element = JsonParser.parseString(new String(Files.readAllBytes(candidate), StandardCharsets.UTF_8));
+                if (element.isJsonObject()) {
+                    JsonObject pkg = element.getAsJsonObject();
+                    if (pkg.has("name") && CLI_PACKAGE.equals(pkg.get("name").getAsString()) && pkg.has("version")) {
+                        return pkg.get("version").getAsString();
+                    }
+                }
+            } catch (IOException | JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+                // Not the CLI's package.json, keep looking
+            }
+        }
+        return null;
+    }
+
+    private void install(String version) throws Exception {
+        List<String> command = new ArrayList<>();
+        if (WINDOWS) {
+            command.add("cmd");
+            command.add("/c");
+        }
+        command.add("npm");
+        command.add("install");
+        command.add("-g");
+        command.add(CLI_PACKAGE + "@" + version);
+        log.info("Installing SmartUI CLI: " + String.join(" ", command));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Thread output = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    log.info("[npm install] " + line);
+                }
+            } catch (Exception e) {
+                log.fine("Failed to read npm output: " + e.getMessage());
+            }
+        });
+        output.setDaemon(true);
+        output.start();
+
+        if (!process.waitFor(installTimeoutMs, TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new Exception("Installing SmartUI CLI timed out after " + TimeUnit.MILLISECONDS.toSeconds(installTimeoutMs) + " seconds");
+        }
+        output.join(1000);
+        if (process.exitValue() != 0) {
+            throw new Exception("Failed to install SmartUI CLI. Exit code: " + process.exitValue());
+        }
+        log.info("SmartUI CLI installed successfully");
+    }
+
+    /**
+     * @return a hash of everything {@link #scanPath()} depends on
+     */
+    static String lookupKey() {
+        String environment = System.getenv("PATH") + "\u0000" + System.getenv("PATHEXT") + "\u0000" +
+                System.getProperty("user.dir");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(environment.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                key.append(String.format("%02x", digest[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(environment.hashCode());
+        }
+    }
+
+    private Map<String, CliInstallation> readCache() {
+        Map<String, CliInstallation> entries = new HashMap<>();
+        if (!Files.isRegularFile(cacheFile)) {
+            return entries;
+        }
+        try {
+            Map<String, CliInstallation> cached = gson.fromJson(new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8), CACHE_TYPE);
+            if (cached != null) {
+                for (Map.Entry<String, CliInstallation> entry : cached.entrySet()) {
+                    if (entry.getValue() != null && entry.getValue().getPath() != null) {
+                        entries.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            // An unreadable cache, or one written before entries were keyed, is rebuilt
+        }
+        return entries;
+    }
+
+    private void writeCache(String key, CliInstallation installation) {
+        try {
+            Map<String, CliInstallation> entries = readCache();
+            if (entries.size() >= MAX_CACHE_ENTRIES && !entries.containsKey(key)) {
+                entries.clear();
+            }
+            entries.put(key, installation);
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = Files.createTempFile(cacheFile.getParent(), CACHE_FILE_NAME, ".tmp");
+            Files.write(temp, gson.toJson(entries, CACHE_TYPE).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.fine("Failed to write SmartUI CLI cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Location and version of an installed SmartUI CLI.
+     */
+    public static class CliInstallation {
+        private final String path;
+        private final String version;
+        private final long modifiedAt;
+
+        public CliInstallation(String path, String version, long modifiedAt) {
+            this.path = path;
+            this.version = version;
+            this.modifiedAt = modifiedAt;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /** @return the CLI version, or null if its package.json could not be found */
+        public String getVersion() {
+            return version;
+        }
+
+        public long getModifiedAt() {
+            return modifiedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "CliInstallation{path='" + path + "', version='" + version + "'}";
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.lambdatest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import io.github.lambdatest.models.BuildData;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * {@link ShardCoordinator} backed by a directory that all shards can reach, e.g. a shared volume of the
+ * CI machines, or the local disk when shards run as separate processes on one machine.
+ *
+ * <p>Each run has a record ({@code shard-<runId>.json}) guarded by a file lock, holding the shard count,
+ * the shared build, and the registered and completed shards. The first shard creates the build while
+ * holding the lock, so shards joining meanwhile wait for it instead of creating their own. Once the
+ * build is finalized, a shard joining under the same run id starts a new record and build.
+ */
+public class FileShardCoordinator implements ShardCoordinator {
+    public static final String DEFAULT_DIRECTORY_NAME = "smartui-shards";
+    public static final String SHARD_DIR_ENV = "SMARTUI_SHARD_DIR";
+
+    // FileChannel locks are held per JVM, so threads of the same JVM are serialized separately
+    private static final ConcurrentHashMap<Path, ReentrantLock> jvmLocks = new ConcurrentHashMap<>();
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private final Path directory;
+
+    public FileShardCoordinator() {
+        this(defaultDirectory());
+    }
+
+    public FileShardCoordinator(Path directory) {
+        this.directory = directory != null ? directory : defaultDirectory();
+    }
+
+    /**
+     * @return the directory from {@value #SHARD_DIR_ENV}, or {@code <java.io.tmpdir>/smartui-shards}
+     */
+    public static Path defaultDirectory() {
+        String env = System.getenv(SHARD_DIR_ENV);
+        if (env != null && !env.trim().isEmpty()) {
+            return Paths.get(env.trim());
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+    }
+
+    @Override
+    public BuildData joinBuild(String runId, int shardIndex, int totalShards, BuildCreator creator) throws Exception {
+        validateShard(shardIndex, totalShards);
+        return withLock(runId, () -> {
+            RunRecord record = read(runId);
+            if (record != null && record.finalized) {
+                // The run id was reused after its build was finalized, the shards start a new build
+                log.info("Run '" + runId + "' already finalized build " + record.build.getBuildId() + ", starting a new one");
+                record = null;
+            }
+            if (record == null) {
+                record = new RunRecord();
+                record.runId = runId;
+                record.totalShards = totalShards;
+            } else if (record.totalShards != totalShards) {
+                throw new Exception("Shard run '" + runId + "' has " + record.totalShards + " shards, not " + totalShards);
+            }
+
+            if (record.build == null) {
+                record.build = creator.create();
+                log.info("Shard " + shardIndex + " created build " + record.build.getBuildId() + " for run '" + runId + "'");
+            } else {
+                log.info("Shard " + shardIndex + " joined build " + record.build.getBuildId() + " of run '" + runId + "'");
+            }
+            if (!record.registered.contains(shardIndex)) {
+                record.registered.add(shardIndex);
+            }
+            write(runId, record);
+            return record.build;
+        });
+    }
+
+    @Override
+    public boolean completeShard(String runId, int shardIndex) throws Exception {
+        return withLock(runId, () -> {
+            RunRecord record = read(runId);
+            if (record == null) {
+                throw new Exception("Shard run '" + runId + "' is not known to " + directory);
+            }
+            record.registered.remove(Integer.valueOf(shardIndex));
+            if (!record.completed.contains(shardIndex)) {
+                record.completed.add(shardIndex);
+            }
+
+            boolean last = record.completed.size() >= record.totalShards && !record.finalized;
+            if (last) {
+                record.finalized = true;
+                log.info("All " + record.totalShards + " shards of run '" + runId + "' are done");
+            } else {
+                log.info("Shard " + shardIndex + " of run '" + runId + "' is done, " +
+                        (record.totalShards - record.completed.size()) + " shards remaining");
+            }
+            write(runId, record);
+            return last;
+        });
+    }
+
+    private static void validateShard(int shardIndex, int totalShards) {
+        if (totalShards < 1 || shardIndex < 0 || shardIndex >= totalShards) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + totalShards);
+        }
+    }
+
+    private <T> T withLock(String runId, Callable<T> action) throws Exception {
+        Files.createDirectories(directory);
+        Path lockFile = directory.resolve("shard-" + fileName(runId) + ".lock");
+        ReentrantLock jvmLock = jvmLocks.computeIfAbsent(lockFile.toAbsolutePath(), k -> new ReentrantLock());
+        jvmLock.lock();
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            return action.call();
+        } finally {
+            jvmLock.unlock();
+        }
+    }
+
+    private RunRecord read(String runId) {
+        Path recordFile = recordFile(runId);
+        if (!Files.exists(recordFile)) {
+            return null;
+        }
+        try {
+            RunRecord record = gson.fromJson(new String(Files.readAllBytes(recordFile), StandardCharsets.UTF_8), RunRecord.class);
+            if (record != null) {
+                if (record.registered == null) {
+                    record.registered = new ArrayList<>();
+                }
+                if (record.completed == null) {
+                    record.completed = new ArrayList<>();
+                }
+            }
+            return record;
+        } catch (IOException | JsonParseException e) {
+            log.warning("Ignoring unreadable shard record " + recordFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String runId, RunRecord record) throws IOException {
+        Path recordFile = recordFile(runId);
+        record.updatedAt = System.currentTimeMillis();
+        Path temp = directory.resolve(recordFile.getFileName() + ".tmp");
+        Files.write(temp, gson.toJson(record).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, recordFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path recordFile(String runId) {
+        return directory.resolve("shard-" + fileName(runId) + ".json");
+    }
+
+    private static String fileName(String runId) {
+        return runId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static class RunRecord {
+        String runId;
+        int totalShards;
+        BuildData build;
+        boolean finalized;
+        long updatedAt;
+        List<Integer> registered = new ArrayList<>();
+        List<Integer> completed = new ArrayList<>();
+    }
+}
@@ -33,7 +33,8 @@ public class FullPageScreenshotUtil {
     private static final double WEB_SCROLL_HEIGHT_PERCENT = 0.4;
 
     private final WebDriver driver;
-    private final String saveDirectoryName;
+    private final File saveDirectory;
+    private final String fileNamePrefix;
     private final Logger log = LoggerUtil.createLogger("lambdatest-java-app-sdk");
     private final String platform;
     private final String testType;
@@ -41,10 +42,22 @@ public class FullPageScreenshotUtil {
     private String prevPageSource = "";
     private int defaultPageCount = DEFAULT_PAGE_COUNT;
     private final boolean preciseScroll;
+    private ByteBudget.Reservation captureReservation;
+    private long captureEstimate;
 
     public FullPageScreenshotUtil(WebDriver driver, String saveDirectoryName, String testType, boolean preciseScroll) {
+        this(driver, new File(saveDirectoryName), saveDirectoryName, testType, preciseScroll);
+    }
+
+    /**
+     * @param saveDirectory directory the chunks are written to; callers running in parallel should each
+     *                      pass their own directory
+     * @param fileNamePrefix prefix of the chunk file names
+     */
+    public FullPageScreenshotUtil(WebDriver driver, File saveDirectory, String fileNamePrefix, String testType, boolean preciseScroll) {
         this.driver = driver;
-        this.saveDirectoryName = saveDirectoryName;
+        this.saveDirectory = saveDirectory;
+        this.fileNamePrefix = fileNamePrefix;
         this.testType = testType;
         this.platform = detectPlatform();
         this.deviceName = detectDeviceName();
@@ -54,6 +67,32 @@ public class FullPageScreenshotUtil {
         createDirectoryIfNeeded();
     }
 
+    /**
+     * @return bytes a screenshot of the current window is estimated to take when decoded, four per pixel
+     */
+    public static long estimateCaptureBytes(WebDriver driver) {
+        Dimension size = driver.manage().window().getSize();
+        return Math.max(1, 4L * size.getWidth() * size.getHeight());
+    }
+
+    /**
+     * Captures the chunks like {@link #captureFullPageScreenshot(int, Map, Map)}, accounting for them in a
+     * {@link ByteBudget} reservation. The caller reserves {@link #estimateCaptureBytes(WebDriver)} for the
+     * first chunk; the reservation is grown for each following chunk before it is captured, and resized
+     * to the size of each chunk's file once saved. The caller releases it once the chunks are sent.
+     */
+    public Map<String, Object> captureFullPageScreenshot(int pageCount, Map<String, List<String>> ignoreSelectors,
+                                                         Map<String, List<String>> selectSelectors,
+                                                         ByteBudget.Reservation reservation) {
+        captureReservation = reservation;
+        captureEstimate = reservation != null ? estimateCaptureBytes(driver) : 0;
+        try {
+            return captureFullPageScreenshot(pageCount, ignoreSelectors, selectSelectors);
+        } finally {
+            captureReservation = null;
+        }
+    }
+
     public Map<String, Object> captureFullPageScreenshot(int pageCount, Map<String, List<String>> ignoreSelectors, Map<String, List<String>> selectSelectors) {
         initializePageCount(pageCount);
 
@@ -173,9 +212,8 @@ public class FullPageScreenshotUtil {
     }
 
     private void createDirectoryIfNeeded() {
-        File dir = new File(saveDirectoryName);
-        if (!dir.exists()) {
-            dir.mkdirs();
+        if (!saveDirectory.exists()) {
+            saveDirectory.mkdirs();
         }
     }
 
@@ -234,7 +272,11 @@ public class FullPageScreenshotUtil {
     }
 
     private File captureAndSaveScreenshot(int index) {
-        File destinationFile = new File(saveDirectoryName + "/" + saveDirectoryName + "_" + index + ".png");
+        File destinationFile = new File(saveDirectory, fileNamePrefix + "_" + index + ".png");
+        if (captureReservation != null && index > 0) {
+            // The first chunk is covered by what the caller reserved
+            captureReservation.grow(captureEstimate);
+        }
         try {
             File screenshotFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
             Files.copy(screenshotFile.toPath(), destinationFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
@@ -242,6 +284,15 @@ public class FullPageScreenshotUtil {
         } catch (IOException e) {
             log.warning("Error saving screenshot: " + e.getMessage());
         }
+        if (captureReservation != null) {
+            // From now on the chunk is held as its file until it is uploaded or journaled
+            long difference = destinationFile.length() - captureEstimate;
+            if (difference > 0) {
+                captureReservation.grow(difference);
+            } else {
+                captureReservation.shrink(-difference);
+            }
+        }
         return destinationFile;
     }
 
@@ -0,0 +1,510 @@
+package io.github.lambdatest.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads the metadata of the checked out commit straight from the {@code .git} directory, without
+ * spawning {@code git}.
+ *
+ * <p>Resolves {@code HEAD} through loose refs and {@code packed-refs}, and reads the commit object
+ * from the loose object store or from the pack files (version 2 index, including deltified objects).
+ * Linked worktrees and submodules ({@code .git} files and {@code commondir}) are supported. Results
+ * are cached per repository root and {@code HEAD} target, so repeated lookups cost a couple of small
+ * file reads.
+ */
+public final class GitRepositoryReader {
+    private static final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private static final ConcurrentHashMap<String, HeadCommit> cache = new ConcurrentHashMap<>();
+
+    private static final int OBJ_COMMIT = 1;
+    private static final int OBJ_OFS_DELTA = 6;
+    private static final int OBJ_REF_DELTA = 7;
+    private static final int SHORT_ID_LENGTH = 7;
+    private static final int MAX_DELTA_DEPTH = 64;
+
+    private final Path gitDir;
+    private final Path commonDir;
+
+    private GitRepositoryReader(Path gitDir, Path commonDir) {
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+    }
+
+    /**
+     * Reads the commit checked out in the repository containing {@code directory}.
+     * @return the HEAD commit, or null if there is no repository or it could not be read
+     */
+    public static HeadCommit readHead(File directory) {
+        try {
+            GitRepositoryReader reader = open(directory.getAbsoluteFile().toPath());
+            if (reader == null) {
+                return null;
+            }
+            return reader.readHead();
+        } catch (Exception e) {
+            log.fine("Failed to read git metadata directly: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static GitRepositoryReader open(Path start) throws IOException {
+        for (Path dir = start; dir != null; dir = dir.getParent()) {
+            Path dotGit = dir.resolve(".git");
+            if (Files.isDirectory(dotGit)) {
+                return forGitDir(dotGit);
+            }
+            if (Files.isRegularFile(dotGit)) {
+                // Worktrees and submodules: ".git" is a file pointing at the real git directory
+                String content = readText(dotGit).trim();
+                if (content.startsWith("gitdir:")) {
+                    Path target = Paths.get(content.substring("gitdir:".length()).trim());
+                    return forGitDir(target.isAbsolute() ? target : dir.resolve(target).normalize());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static GitRepositoryReader forGitDir(Path gitDir) throws IOException {
+        Path commonDir = gitDir;
+        Path commonDirFile = gitDir.resolve("commondir");
+        if (Files.isRegularFile(commonDirFile)) {
+            Path target = Paths.get(readText(commonDirFile).trim());
+            commonDir = target.isAbsolute() ? target : gitDir.resolve(target).normalize();
+        }
+        return new GitRepositoryReader(gitDir, commonDir);
+    }
+
+    private HeadCommit readHead() throws IOException, DataFormatException {
+        String head = readText(gitDir.resolve("HEAD")).trim();
+        String branch;
+        String commitId;
+        if (head.startsWith("ref:")) {
+            String ref = head.substring("ref:".length()).trim();
+            branch = ref.startsWith("refs/heads/") ? ref.substring("refs/heads/".length()) : ref;
+            commitId = resolveRef(ref);
+            if (commitId == null) {
+                // Unborn branch, nothing committed yet
+                return null;
+            }
+        } else {
+            branch = "HEAD";
+            commitId = head;
+        }
+
+        String key = gitDir.toAbsolutePath() + "|" + branch + "|" + commitId;
+        HeadCommit cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] commit = readObject(commitId, OBJ_COMMIT);
+        if (commit == null) {
+            return null;
+        }
+        HeadCommit result = parseCommit(commitId, branch, new String(commit, StandardCharsets.UTF_8));
+        cache.put(key, result);
+        return result;
+    }
+
+    private String resolveRef(String ref) throws IOException {
+        for (int depth = 0; depth < 10; depth++) {
+            Path loose = (ref.startsWith("refs/") ? commonDir : gitDir).resolve(ref);
+            if (!Files.isRegularFile(loose)) {
+                loose = gitDir.resolve(ref);
+            }
+            if (Files.isRegularFile(loose)) {
+                String value = readText(loose).trim();
+                if (value.startsWith("ref:")) {
+                    ref = value.substring("ref:".length()).trim();
+                    continue;
+                }
+                return value;
+            }
+            return findPackedRef(ref);
+        }
+        return null;
+    }
+
+    private String findPackedRef(String ref) throws IOException {
+        Path packedRefs = commonDir.resolve("packed-refs");
+        if (!Files.isRegularFile(packedRefs)) {
+            return null;
+        }
+        for (String line : Files.readAllLines(packedRefs, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '^') {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            if (space > 0 && line.substring(space + 1).equals(ref)) {
+                return line.substring(0, space);
+            }
+        }
+        return null;
+    }
+
+    private static HeadCommit parseCommit(String commitId, String branch, String commit) {
+        String authorName = "";
+        String authorEmail = "";
+        long authorTime = 0;
+        int bodyStart = commit.indexOf("\n\n");
+        String headers = bodyStart < 0 ? commit : commit.substring(0, bodyStart);
+        for (String header : headers.split("\n")) {
+            if (header.startsWith("author ")) {
+                String value = header.substring("author ".length());
+                int emailStart = value.indexOf('<');
+                int emailEnd = value.indexOf('>', emailStart + 1);
+                if (emailStart >= 0 && emailEnd > emailStart) {
+                    authorName = value.substring(0, emailStart).trim();
+                    authorEmail = value.substring(emailStart + 1, emailEnd);
+                    String[] time = value.substring(emailEnd + 1).trim().split(" ");
+                    try {
+                        authorTime = Long.parseLong(time[0]);
+                    } catch (NumberFormatException e) {
+                        // Leave the time unknown
+                    }
+                } else {
+                    authorName = value.trim();
+                }
+            }
+        }
+
+        String message = bodyStart < 0 ? "" : commit.substring(bodyStart + 2);
+        // Like git's %s: the first paragraph of the message, joined into one line
+        int paragraphEnd = message.indexOf("\n\n");
+        String subject = (paragraphEnd < 0 ? message : message.substring(0, paragraphEnd)).trim().replaceAll("\\s*\n\\s*", " ");
+        String body = paragraphEnd < 0 ? "" : message.substring(paragraphEnd + 2).trim();
+
+        return new HeadCommit(branch, commitId, subject, body, authorName, authorEmail, authorTime);
+    }
+
+    private byte[] readObject(String id, int expectedType) throws IOException, DataFormatException {
+        PackedObject object = readAnyObject(id, 0);
+        if (object == null || object.type != expectedType) {
+            return null;
+        }
+        return object.data;
+    }
+
+    private PackedObject readAnyObject(String id, int depth) throws IOException, DataFormatException {
+        PackedObject loose = readLooseObject(id);
+        if (loose != null) {
+            return loose;
+        }
+        File[] indexes = commonDir.resolve("objects").resolve("pack").toFile().listFiles((dir, name) -> name.endsWith(".idx"));
+        if (indexes == null) {
+            return null;
+        }
+        byte[] sha = hexToBytes(id);
+        for (File index : indexes) {
+            long offset = findOffset(index.toPath(), sha);
+            if (offset >= 0) {
+                String packName = index.getName().substring(0, index.getName().length() - ".idx".length()) + ".pack";
+                return readPackedObject(index.toPath().resolveSibling(packName), offset, depth);
+            }
+        }
+        return null;
+    }
+
+    private PackedObject readLooseObject(String id) throws IOException {
+        Path path = commonDir.resolve("objects").resolve(id.substring(0, 2)).resolve(id.substring(2));
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        byte[] raw;
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(path))) {
+            raw = readAll(in);
+        }
+        int headerEnd = 0;
+        while (headerEnd < raw.length && raw[headerEnd] != 0) {
+            headerEnd++;
+        }
+        String header = new String(raw, 0, headerEnd, StandardCharsets.US_ASCII);
+        int type = header.startsWith("commit ") ? OBJ_COMMIT : -1;
+        byte[] data = new byte[raw.length - headerEnd - 1];
+        System.arraycopy(raw, headerEnd + 1, data, 0, data.length);
+        return new PackedObject(type, data);
+    }
+
+    /**
+     * Looks the object up in a version 2 pack index.
+     * @return the object's offset in the pack, or -1 if the pack does not contain it
+     */
+    private static long findOffset(Path index, byte[] sha) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(index.toFile(), "r")) {
+            if (file.readInt() != 0xff744f63 || file.readInt() != 2) {
+                return -1;
+            }
+            int first = sha[0] & 0xff;
+            long fanoutStart = 8;
+            file.seek(fanoutStart + (first == 0 ? 0 : (first - 1) * 4L));
+            int low = first == 0 ? 0 : file.readInt();
+            file.seek(fanoutStart + first * 4L);
+            int high = file.readInt();
+            file.seek(fanoutStart + 255 * 4L);
+            int total = file.readInt();
+
+            long namesStart = fanoutStart + 256 * 4L;
+            byte[] candidate = new byte[20];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                file.seek(namesStart + mid * 20L);
+                file.readFully(candidate);
+                int cmp = compare(candidate, sha);
+                if (cmp == 0) {
+                    long offsetsStart = namesStart + total * 20L + total * 4L;
+                    file.seek(offsetsStart + mid * 4L);
+                    long offset = file.readInt() & 0xffffffffL;
+                    if ((offset & 0x80000000L) != 0) {
+                        file.seek(offsetsStart + total * 4L + (offset & 0x7fffffffL) * 8);
+                        offset = file.readLong();
+                    }
+                    return offset;
+                } else if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private PackedObject readPackedObject(Path pack, long offset, int depth) throws IOException, DataFormatException {
+        if (depth > MAX_DELTA_DEPTH) {
+            throw new IOException("Delta chain too deep in " + pack);
+        }
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+            channel.position(offset);
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            int c = in.readUnsignedByte();
+            int type = (c >> 4) & 7;
+            long size = c & 0x0f;
+            int shift = 4;
+            while ((c & 0x80) != 0) {
+                c = in.readUnsignedByte();
+                size |= (long) (c & 0x7f) << shift;
+                shift += 7;
+            }
+
+            if (type == OBJ_OFS_DELTA) {
+                c = in.readUnsignedByte();
+                long baseDistance = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = in.readUnsignedByte();
+                    baseDistance = ((baseDistance + 1) << 7) | (c & 0x7f);
+                }
+                byte[] delta = inflate(in, size);
+                PackedObject base = readPackedObject(pack, offset - baseDistance, depth + 1);
+                return new PackedObject(base.type, applyDelta(base.data, delta));
+            }
+            if (type == OBJ_REF_DELTA) {
+                byte[] baseSha = new byte[20];
+                in.readFully(baseSha);
+                byte[] delta = inflate(in, size);
+                PackedObject base = readAnyObject(bytesToHex(baseSha), depth + 1);
+                if (base == null) {
+                    throw new IOException("Missing delta base " + bytesToHex(baseSha));
+                }
+                return new PackedObject(base.type, applyDelta(base.data, delta));
+            }
+            return new PackedObject(type, inflate(in, size));
+        }
+    }
+
+    private static byte[] inflate(InputStream in, long size) throws IOException, DataFormatException {
+        byte[] out = new byte[(int) size];
+        Inflater inflater = new Inflater();
+        try {
+            byte[] buffer = new byte[8192];
+            int written = 0;
+            while (!inflater.finished() && written < out.length) {
+                if (inflater.needsInput()) {
+                    int read = in.read(buffer);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of pack data");
+                    }
+                    inflater.setInput(buffer, 0, read);
+                }
+                written += inflater.inflate(out, written, out.length - written);
+            }
+            return out;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        int[] pos = {0};
+        readVarint(delta, pos); // source size
+        int resultSize = (int) readVarint(delta, pos);
+        byte[] result = new byte[resultSize];
+        int out = 0;
+        while (pos[0] < delta.length) {
+            int op = delta[pos[0]++] & 0xff;
+            if ((op & 0x80) != 0) {
+                int copyOffset = 0;
+                int copySize = 0;
+                for (int i = 0; i < 4; i++) {
+                    if ((op & (1 << i)) != 0) {
+                        copyOffset |= (delta[pos[0]++] & 0xff) << (8 * i);
+                    }
+                }
+                for (int i = 0; i < 3; i++) {
+                    if ((op & (0x10 << i)) != 0) {
+                        copySize |= (delta[pos[0]++] & 0xff) << (8 * i);
+                    }
+                }
+                if (copySize == 0) {
+                    copySize = 0x10000;
+                }
+                System.arraycopy(base, copyOffset, result, out, copySize);
+                out += copySize;
+            } else if (op != 0) {
+                System.arraycopy(delta, pos[0], result, out, op);
+                pos[0] += op;
+                out += op;
+            } else {
+                throw new IOException("Invalid delta instruction");
+            }
+        }
+        return result;
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        int c;
+        do {
+            c = data[pos[0]++] & 0xff;
+            value |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        } while ((c & 0x80) != 0);
+        return value;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static String bytesToHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String readText(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private static final class PackedObject {
+        final int type;
+        final byte[] data;
+
+        PackedObject(int type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Metadata of the commit checked out in a repository.
+     */
+    public static final class HeadCommit {
+        private final String branch;
+        private final String commitId;
+        private final String subject;
+        private final String body;
+        private final String authorName;
+        private final String authorEmail;
+        private final long authorTime;
+
+        HeadCommit(String branch, String commitId, String subject, String body, String authorName,
+                   String authorEmail, long authorTime) {
+            this.branch = branch;
+            this.commitId = commitId;
+            this.subject = subject;
+            this.body = body;
+            this.authorName = authorName;
+            this.authorEmail = authorEmail;
+            this.authorTime = authorTime;
+        }
+
+        /** @return the checked out branch, or {@code HEAD} when detached, like {@code git rev-parse --abbrev-ref HEAD} */
+        public String getBranch() {
+            return branch;
+        }
+
+        public String getCommitId() {
+            return commitId;
+        }
+
+        public String getShortCommitId() {
+            return commitId.substring(0, Math.min(SHORT_ID_LENGTH, commitId.length()));
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public String getAuthorName() {
+            return authorName;
+        }
+
+        public String getAuthorEmail() {
+            return authorEmail;
+        }
+
+        /** @return author time in seconds since the epoch */
+        public long getAuthorTime() {
+            return authorTime;
+        }
+    }
+}
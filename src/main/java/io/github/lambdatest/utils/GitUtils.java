@@ -20,11 +20,33 @@ public class GitUtils {
         if (gitInfoFilePath != null) {
             return readGitInfoFromFile(gitInfoFilePath, envVars);
         } else {
-            GitInfo gitInfo = fetchGitInfoFromCommands(envVars);
+            GitInfo gitInfo = fetchGitInfoFromRepository(envVars);
+            if (gitInfo != null) {
+                return gitInfo;
+            }
+            gitInfo = fetchGitInfoFromCommands(envVars);
             return  gitInfo;
         }
     }
 
+    /**
+     * Reads the HEAD commit from the .git directory without spawning git.
+     * @return null if the working directory is not in a repository that could be read
+     */
+    private static GitInfo fetchGitInfoFromRepository(Map<String, String> envVars) {
+        GitRepositoryReader.HeadCommit head = GitRepositoryReader.readHead(new File(System.getProperty("user.dir")));
+        if (head == null) {
+            return null;
+        }
+        return new GitInfo(
+                envVars.getOrDefault("CURRENT_BRANCH", head.getBranch()),
+                head.getShortCommitId(),
+                head.getSubject(),
+                head.getAuthorName(),
+                getGitHubURL(envVars, head.getCommitId()),
+                envVars.getOrDefault("BASELINE_BRANCH", ""));
+    }
+
     private static GitInfo readGitInfoFromFile(String filePath, Map<String, String> envVars) {
         ObjectMapper objectMapper = new ObjectMapper();
         try {
@@ -1,9 +1,12 @@
 package io.github.lambdatest.utils;
 
 import com.google.gson.*;
+import io.github.lambdatest.exceptions.ThrottledException;
 import io.github.lambdatest.models.BuildData;
+import io.github.lambdatest.models.BuildScreenshotsResponse;
 import io.github.lambdatest.models.ProjectTokenResponse;
 import io.github.lambdatest.models.UploadSnapshotRequest;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
@@ -12,12 +15,14 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import io.github.lambdatest.constants.Constants;
 
@@ -25,6 +30,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -41,11 +47,44 @@ import javax.net.ssl.SSLContext;
 import static io.github.lambdatest.constants.Constants.TEST_TYPE;
 
 public class HttpClientUtil {
+    private static final int MAX_CONNECTIONS = 64;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 32;
     private final CloseableHttpClient httpClient;
     private Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    // SmartUI CLI server this client talks to, null to resolve it from the environment on each request
+    private String serverAddress;
 
     public HttpClientUtil() {
-        this.httpClient = HttpClients.createDefault();
+        // The default of 2 connections per route would serialize uploads from parallel sessions
+        this.httpClient = HttpClients.custom()
+                .setMaxConnTotal(MAX_CONNECTIONS)
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .build();
+    }
+
+    /**
+     * Creates a client bound to one SmartUI CLI server. Connections are pooled so concurrent snapshots
+     * reuse them instead of opening a new one per request.
+     * @param readTimeoutMs socket timeout, 0 for none
+     */
+    public HttpClientUtil(String serverAddress, int connectTimeoutMs, int readTimeoutMs) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+        this.serverAddress = serverAddress;
+    }
+
+    public String getServerAddress() {
+        return serverAddress != null ? serverAddress : SmartUIUtil.getSmartUIServerAddress();
     }
 
     public HttpClientUtil(String proxyHost, int proxyPort) throws Exception {
@@ -69,6 +108,8 @@ public class HttpClientUtil {
 
                 clientBuilder = HttpClients.custom()
                         .setDefaultRequestConfig(requestConfig)
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
                         .setSSLContext(sslContext)
                         .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
                         .build();
@@ -76,6 +117,8 @@ public class HttpClientUtil {
                 // Build standard HttpClient with proxy
                 clientBuilder = HttpClients.custom()
                         .setDefaultRequestConfig(requestConfig)
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
                         .build();
             }
 
@@ -109,6 +152,8 @@ public class HttpClientUtil {
 
                 clientBuilder = HttpClients.custom()
                         .setDefaultRequestConfig(requestConfig)
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
                         .setSSLContext(sslContext)
                         .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
                         .build();
@@ -117,6 +162,8 @@ public class HttpClientUtil {
                 // Build standard HttpClient with proxy
                 clientBuilder = HttpClients.custom()
                         .setDefaultRequestConfig(requestConfig)
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
                         .build();
             }
 
@@ -176,6 +223,7 @@ public class HttpClientUtil {
         request.setHeader("Content-type", "application/json");
 
         try (CloseableHttpResponse response = httpClient.execute(request)) {
+            checkThrottled(response);
             HttpEntity entity = response.getEntity();
             String responseString = entity != null ? EntityUtils.toString(entity) : null;
 
@@ -255,6 +303,30 @@ public class HttpClientUtil {
         }
     }
 
+    private void checkThrottled(HttpResponse response) throws ThrottledException {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == 429 || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+            long retryAfter = parseRetryAfter(response.getFirstHeader("Retry-After"));
+            throw new ThrottledException("Request throttled with status code: " + statusCode, statusCode, retryAfter);
+        }
+    }
+
+    /**
+     * @return the delay of a {@code Retry-After} header given in seconds or as an HTTP date, -1 if absent or invalid
+     */
+    static long parseRetryAfter(Header header) {
+        if (header == null || header.getValue() == null) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Math.max(0, Long.parseLong(value)) * 1000;
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+        }
+    }
+
     public boolean isUserAuthenticated(String projectToken) throws Exception {
         try {
             String hostUrl = Constants.getHostUrlFromEnvOrDefault();
@@ -283,17 +355,44 @@ public class HttpClientUtil {
     }
 
     public String isSmartUIRunning() throws IOException {
-        return request(SmartUIUtil.getSmartUIServerAddress() + Constants.SmartUIRoutes.SMARTUI_HEALTHCHECK_ROUTE,
+        return request(getServerAddress() + Constants.SmartUIRoutes.SMARTUI_HEALTHCHECK_ROUTE,
                 Constants.RequestMethods.GET, null);
     }
 
+    /**
+     * Lightweight healthcheck with its own timeout, used by the background heartbeat.
+     * @return true if the server answered with 200
+     */
+    public boolean checkHealth(int timeoutMs) {
+        HttpGet request = new HttpGet(getServerAddress() + Constants.SmartUIRoutes.SMARTUI_HEALTHCHECK_ROUTE);
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(timeoutMs)
+                .setConnectionRequestTimeout(timeoutMs)
+                .setSocketTimeout(timeoutMs)
+                .build());
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            return response.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Asks the CLI server to finalize the build and shut down, the same request {@code smartui exec:stop} sends.
+     */
+    public String stopServer() throws IOException {
+        return request(getServerAddress() + Constants.SmartUIRoutes.SMARTUI_STOP_ROUTE,
+                Constants.RequestMethods.POST, "{}");
+    }
+
     public String fetchDOMSerializer() throws IOException {
-        return request(SmartUIUtil.getSmartUIServerAddress() + Constants.SmartUIRoutes.SMARTUI_DOMSERIALIZER_ROUTE,
+        return request(getServerAddress() + Constants.SmartUIRoutes.SMARTUI_DOMSERIALIZER_ROUTE,
                 Constants.RequestMethods.GET, null);
     }
 
     public String postSnapshot(String data) throws IOException {
-        return request(SmartUIUtil.getSmartUIServerAddress() + Constants.SmartUIRoutes.SMARTUI_SNAPSHOT_ROUTE,
+        return request(getServerAddress() + Constants.SmartUIRoutes.SMARTUI_SNAPSHOT_ROUTE,
                 Constants.RequestMethods.POST, data);
     }
 
@@ -319,91 +418,23 @@ public class HttpClientUtil {
 
     public String uploadScreenshot(String url, File screenshot, UploadSnapshotRequest request,
                                    BuildData data) throws IOException {
-        HttpPost uploadRequest = new HttpPost(url);
-        uploadRequest.setHeader("projectToken", request.getProjectToken());
-
-        // Build the multipart request entity
-        MultipartEntityBuilder builder = MultipartEntityBuilder.create();
-        builder.setMode(HttpMultipartMode.STRICT);
-
-        // Add the required fields
-        builder.addBinaryBody("screenshot", screenshot, ContentType.create("image/png"), request.getScreenshotName());
-        builder.addTextBody("buildId", data.getBuildId());
-        builder.addTextBody("buildName", data.getName());
-        builder.addTextBody("baseline", Boolean.toString(data.getBaseline()));
-        builder.addTextBody("screenshotName", request.getScreenshotName());
-        builder.addTextBody("browser", request.getBrowserName());
-        builder.addTextBody("deviceName", request.getDeviceName());
-        builder.addTextBody("os", request.getOs());
-        builder.addTextBody("viewport", request.getViewport());
-        builder.addTextBody("uploadChunk", request.getUploadChunk());
-        builder.addTextBody("projectType", TEST_TYPE);
-        builder.addTextBody("screenshotHash", request.getScreenshotHash());
-
-        // Add optional fields if present
-        if (Objects.nonNull(request.getFullPage())) {
-            builder.addTextBody("fullPage", request.getFullPage());
-        }
-        if (Objects.nonNull(request.getIsLastChunk())) {
-            builder.addTextBody("isLastChunk", request.getIsLastChunk());
-        }
-        if (Objects.nonNull(request.getChunkCount())) {
-            builder.addTextBody("chunkCount", String.valueOf(request.getChunkCount()));
-        }
-
-        // Handle status bar height
-        String statusBarHeight = "";
-        if (request.getStatusBarHeight() == null) {
-            builder.addTextBody("statusBarHeight", statusBarHeight);
-        } else {
-            statusBarHeight = request.getStatusBarHeight();
-            //only set cropStatusBar to false when it exists and statusBarHeight is valid
-            if (request.getCropStatusBar() != null && Boolean.parseBoolean(request.getCropStatusBar())
-                    && isValidNumber(statusBarHeight)) {
-                request.setCropStatusBar("false"); // Overwrite since we have custom value from user
-            }
-            request.setCropStatusBar("false");
-            builder.addTextBody("statusBarHeight", statusBarHeight);
-        }
-
-        if (request.getCropStatusBar() != null) {
-            builder.addTextBody("cropStatusBar", request.getCropStatusBar());
-        }
-
-        // Handle navigation bar height
-        String navigationBarHeight = "";
-        if (request.getNavigationBarHeight() == null) {
-            builder.addTextBody("navigationBarHeight", navigationBarHeight);
-        } else {
-            navigationBarHeight = request.getNavigationBarHeight();
-            //only set cropFooter to false when it exists and navigationBarHeight is valid
-            if (request.getCropFooter() != null && Boolean.parseBoolean(request.getCropFooter())
-                    && isValidNumber(navigationBarHeight)) {
-                request.setCropFooter("false"); // Overwrite since we have custom value from user
-            }
-            request.setCropFooter("false");
-            builder.addTextBody("navigationBarHeight", navigationBarHeight);
-        }
-
-        if (request.getCropFooter() != null) {
-            builder.addTextBody("cropFooter", request.getCropFooter());
-        }
-
-        // Add ignoreBoxes field if present
-        if (Objects.nonNull(request.getIgnoreBoxes()) && !request.getIgnoreBoxes().isEmpty()) {
-            builder.addTextBody("ignoreBoxes", request.getIgnoreBoxes());
-        }
-
-        // Add selectBoxes field if present
-        if (Objects.nonNull(request.getSelectBoxes()) && !request.getSelectBoxes().isEmpty()) {
-            builder.addTextBody("selectBoxes", request.getSelectBoxes());
-        }
+        return uploadScreenshot(url, screenshot, ScreenshotUploadSpec.of(request, data),
+                request.getChunkCount(), request.getIsLastChunk());
+    }
 
-        // Execute the request
-        HttpEntity multipart = builder.build();
-        uploadRequest.setEntity(multipart);
+    /**
+     * Uploads one chunk of a screenshot, reusing the multipart fields the spec encoded up front.
+     */
+    public String uploadScreenshot(String url, File screenshot, ScreenshotUploadSpec spec, Integer chunkCount,
+                                   String isLastChunk) throws IOException {
+        HttpPost uploadRequest = new HttpPost(url);
+        uploadRequest.setHeader("projectToken", spec.getProjectToken());
+        uploadRequest.setEntity(spec.newChunkEntity(screenshot, chunkCount, isLastChunk));
         try (CloseableHttpResponse response = httpClient.execute(uploadRequest)) {
+            checkThrottled(response);
             return EntityUtils.toString(response.getEntity());
+        } catch (ThrottledException e) {
+            throw e;
         } catch (IOException e) {
 
             log.warning("Exception occurred in uploading screenshot: " + e.getMessage());
@@ -411,22 +442,6 @@ public class HttpClientUtil {
         }
     }
 
-    private boolean isValidNumber(String value) {
-        if (value == null || value.isEmpty()) {
-            return false;
-        }
-        try {
-            int strVal = Integer.parseInt(value);
-            if(strVal >=1) {
-            return true;
-            } else {
-                throw new NumberFormatException("Invalid value for cropping, pls provide a valid value");
-            }
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
-
     public String uploadPDFs(String url, List<File> pdfFiles, String projectToken, String buildName, String[] pdfNames) throws IOException {
         HttpPost uploadRequest = new HttpPost(url);
         uploadRequest.setHeader("Authorization", "Basic " + projectToken);
@@ -445,9 +460,9 @@ public class HttpClientUtil {
         for (File pdfFile : pdfFiles) {
             log.info("Adding PDF file: " + pdfFile.getName());
             if (pdfFile != null && pdfFile.exists()) {
-                builder.addBinaryBody("pathToFiles", pdfFile, 
+                builder.addPart("pathToFiles", new StreamingFileBody(pdfFile,
                     ContentType.create("application/octet-stream"), 
-                    pdfFile.getName());
+                    pdfFile.getName()));
             }
         }
 
@@ -455,6 +470,7 @@ public class HttpClientUtil {
         uploadRequest.setEntity(multipart);
         
         try (CloseableHttpResponse response = httpClient.execute(uploadRequest)) {
+            checkThrottled(response);
             HttpEntity entity = response.getEntity();
             String responseString = entity != null ? EntityUtils.toString(entity) : null;
             
@@ -482,6 +498,8 @@ public class HttpClientUtil {
                 }
                 throw new IOException("PDF upload failed with status code: " + statusCode + ". Response: " + responseString);
             }
+        } catch (ThrottledException e) {
+            throw e;
         } catch (IOException e) {
             log.warning("Exception occurred in uploading PDFs: " + e.getMessage());
             throw new IOException("Failed to upload PDFs", e);
@@ -498,10 +516,15 @@ public class HttpClientUtil {
         }
     }
 
-    public String getBuildScreenshotsWithPolling(String url, Map<String, String> headers, int maxRetries) throws IOException, InterruptedException {
+    /**
+     * Polls the build screenshots API until the build is no longer running, parsing each response
+     * in a single streaming pass. Polls that find the build still running stop reading as soon as
+     * {@code build_status} has been seen instead of downloading the whole screenshot list.
+     */
+    public BuildScreenshotsResponse fetchBuildScreenshotsWithPolling(String url, Map<String, String> headers, int maxRetries) throws IOException, InterruptedException {
         int attempts = 0;
-        String lastResponse = null;
-        
+        BuildScreenshotsResponse lastResponse = null;
+
         while (attempts < maxRetries) {
             HttpGet request = new HttpGet(url);
 
@@ -514,11 +537,10 @@ public class HttpClientUtil {
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 int statusCode = response.getStatusLine().getStatusCode();
                 HttpEntity entity = response.getEntity();
-                String responseString = entity != null ? EntityUtils.toString(entity) : null;
-
-                lastResponse = responseString;
 
                 if (statusCode == 400) {
+                    EntityUtils.consumeQuietly(entity);
+                    lastResponse = new BuildScreenshotsResponse();
                     attempts++;
                     if (attempts < maxRetries) {
                         log.info("Waiting for results...");
@@ -530,43 +552,27 @@ public class HttpClientUtil {
                     throw new HttpResponseException(statusCode, "Unauthorized: Invalid credentials or token");
                 }
 
-                if (statusCode != 200 || responseString == null) {
-                    return responseString;
+                if (entity == null) {
+                    return null;
                 }
 
-                try {
-                    JsonElement element = JsonParser.parseString(responseString);
-                    if (!element.isJsonObject()) {
-                        return responseString;
-                    }
+                // Only stop early if another poll will follow, so the final attempt is always complete
+                boolean stopIfRunning = statusCode == 200 && attempts + 1 < maxRetries;
+                BuildScreenshotsParser.Result result = BuildScreenshotsParser.parse(entity.getContent(), stopIfRunning);
+                lastResponse = result.getResponse();
 
-                    JsonObject jsonResponse = element.getAsJsonObject();
-                    if (!jsonResponse.has("build") || !jsonResponse.get("build").isJsonObject()) {
-                        return responseString;
-                    }
-
-                    JsonObject buildObject = jsonResponse.getAsJsonObject("build");
-                    if (!buildObject.has("build_status")) {
-                        return responseString;
-                    }
-
-                    String buildStatus = buildObject.get("build_status").getAsString();
-                    if (!"running".equals(buildStatus)) {
-                        return responseString;
-                    }
+                if (statusCode != 200 || !result.isBuildRunning()) {
+                    return lastResponse;
+                }
 
-                    attempts++;
-                    if (attempts < maxRetries) {
-                        log.info("Waiting for results...");
-                        Thread.sleep(10000);
-                    }
-                } catch (JsonSyntaxException e) {
-                    log.warning("Failed to parse response JSON: " + e.getMessage());
-                    return responseString;
+                attempts++;
+                if (attempts < maxRetries) {
+                    log.info("Waiting for results...");
+                    Thread.sleep(10000);
                 }
             }
         }
-        
+
         if (lastResponse != null) {
             log.warning("Max retries reached, returning last response");
             return lastResponse;
@@ -576,8 +582,17 @@ public class HttpClientUtil {
     }
 
     public String getSmartUIResults(String sessionId) throws IOException {
+        return getSmartUIResults(sessionId, null).getBody();
+    }
+
+    /**
+     * Fetches SmartUI results, revalidating against a previous response when one is given. The
+     * validators ({@code ETag} / {@code Last-Modified}) of the previous response are sent back so the
+     * server can answer {@code 304 Not Modified} instead of recomputing and resending the payload.
+     */
+    public ConditionalResponse getSmartUIResults(String sessionId, ConditionalResponse previous) throws IOException {
         try {
-            String url = SmartUIUtil.getSmartUIServerAddress() +
+            String url = getServerAddress() +
                     Constants.SmartUIRoutes.SMARTUI_RESULTS_ROUTE;
             if (sessionId != null && !sessionId.isEmpty()) {
                 url += "?sessionId=" + URLEncoder.encode(sessionId, StandardCharsets.UTF_8);
@@ -585,15 +600,29 @@ public class HttpClientUtil {
 
             HttpGet request = new HttpGet(url);
             request.setHeader("Content-Type", "application/json");
+            if (previous != null && previous.getEtag() != null) {
+                request.setHeader("If-None-Match", previous.getEtag());
+            }
+            if (previous != null && previous.getLastModified() != null) {
+                request.setHeader("If-Modified-Since", previous.getLastModified());
+            }
 
             log.info("Fetching SmartUI results from: " + url);
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 int statusCode = response.getStatusLine().getStatusCode();
+                String etag = headerValue(response, "ETag");
+                String lastModified = headerValue(response, "Last-Modified");
+                if (statusCode == HttpStatus.SC_NOT_MODIFIED && previous != null) {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    return new ConditionalResponse(previous.getBody(), true,
+                            etag != null ? etag : previous.getEtag(),
+                            lastModified != null ? lastModified : previous.getLastModified());
+                }
                 HttpEntity entity = response.getEntity();
                 String responseString = entity != null ? EntityUtils.toString(entity) : null;
                 if (statusCode == HttpStatus.SC_OK) {
-                    return responseString;
+                    return new ConditionalResponse(responseString, false, etag, lastModified);
                 } else {
                     throw new IOException("SmartUI results request failed with status code: " + statusCode + ". Response: " + responseString);
                 }
@@ -603,16 +632,75 @@ public class HttpClientUtil {
         }
     }
 
+    private static String headerValue(HttpResponse response, String name) {
+        org.apache.http.Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    /**
+     * Body of a GET together with the validators needed to revalidate it later.
+     */
+    public static class ConditionalResponse {
+        private final String body;
+        private final boolean notModified;
+        private final String etag;
+        private final String lastModified;
+
+        public ConditionalResponse(String body, boolean notModified, String etag, String lastModified) {
+            this.body = body;
+            this.notModified = notModified;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public boolean isNotModified() {
+            return notModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Polls the CLI server for a snapshot posted with {@code contextId}, for at most {@code timeout} seconds.
+     * @return true if the server processed the snapshot, false if it is still processing it
+     */
+    public boolean isSnapshotProcessed(String contextId, String snapshotName, int timeout) throws IOException {
+        HttpGet request = new HttpGet(snapshotStatusUrl(contextId, snapshotName, timeout));
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            String responseString = entity != null ? EntityUtils.toString(entity) : null;
+            if (statusCode == HttpStatus.SC_OK) {
+                return true;
+            }
+            if (statusCode == HttpStatus.SC_ACCEPTED) {
+                return false;
+            }
+            throw new IOException("Snapshot status request failed with status " + statusCode + ": " + responseString);
+        }
+    }
+
+    private String snapshotStatusUrl(String contextId, String snapshotName, int timeout) {
+        return getServerAddress() +
+                Constants.SmartUIRoutes.SMARTUI_SNAPSHOT_STATUS_ROUTE +
+                "?contextId=" + URLEncoder.encode(contextId, StandardCharsets.UTF_8) +
+                "&snapshotName=" + URLEncoder.encode(snapshotName.trim(), StandardCharsets.UTF_8) +
+                "&pollTimeout=" + timeout;
+    }
+
     public String getSnapshotStatus(String contextId, String snapshotName, int timeout) throws IOException {
         try {
-            String trimmedSnapshotName = snapshotName.trim();
-            String url = SmartUIUtil.getSmartUIServerAddress() + 
-             Constants.SmartUIRoutes.SMARTUI_SNAPSHOT_STATUS_ROUTE + 
-             "?contextId=" + URLEncoder.encode(contextId, StandardCharsets.UTF_8) + 
-             "&snapshotName=" + URLEncoder.encode(trimmedSnapshotName, StandardCharsets.UTF_8) +
-             "&pollTimeout=" + timeout;
-            
-            HttpGet request = new HttpGet(url);
+            HttpGet request = new HttpGet(snapshotStatusUrl(contextId, snapshotName, timeout));
             request.setHeader("Content-Type", "application/json");
             
             log.info("Fetching snapshot status for snapshotName: " + snapshotName);
@@ -0,0 +1,164 @@
+package io.github.lambdatest.utils;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicNameValuePair;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A multipart/form-data body whose constant text parts are encoded once and reused by every request
+ * built from it; only the varying text parts and the file are written per request.
+ *
+ * <p>Parts are encoded like {@link org.apache.http.entity.mime.HttpMultipartMode#STRICT}: ASCII headers,
+ * {@code text/plain; charset=ISO-8859-1} text bodies and a binary file body. The file part comes last.
+ */
+public final class MultipartTemplate {
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final char[] BOUNDARY_CHARS =
+            "-_1234567890abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final ContentType TEXT = ContentType.DEFAULT_TEXT;
+    private static final SecureRandom random = new SecureRandom();
+
+    private final String boundary;
+    private final ContentType multipartType;
+    private final byte[] fixedParts;
+    private final byte[] closing;
+
+    /**
+     * @param textParts the parts shared by all requests, in order
+     */
+    public MultipartTemplate(Map<String, String> textParts) {
+        this.boundary = generateBoundary();
+        this.multipartType = ContentType.create("multipart/form-data", new BasicNameValuePair("boundary", boundary));
+        this.fixedParts = encodeTextParts(textParts);
+        this.closing = ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public String getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * @return the encoded fixed parts, shared by all requests; must not be modified
+     */
+    byte[] getFixedParts() {
+        return fixedParts;
+    }
+
+    /**
+     * Creates the body of one request: the fixed parts, then {@code textParts}, then the file streamed
+     * from disk.
+     */
+    public HttpEntity newEntity(Map<String, String> textParts, String fileField, File file, String fileName,
+                                ContentType fileType) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        write(buffer, encodeTextParts(textParts));
+        String disposition = "form-data; name=\"" + fileField + "\"" + (fileName != null ? "; filename=\"" + fileName + "\"" : "");
+        writePartHeader(buffer, disposition, fileType.toString(), "binary");
+        return new TemplateEntity(buffer.toByteArray(), file);
+    }
+
+    private byte[] encodeTextParts(Map<String, String> textParts) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> part : (textParts != null ? textParts : Collections.<String, String>emptyMap()).entrySet()) {
+            if (part.getValue() == null) {
+                throw new IllegalArgumentException("Multipart part " + part.getKey() + " may not be null");
+            }
+            writePartHeader(buffer, "form-data; name=\"" + part.getKey() + "\"", TEXT.toString(), "8bit");
+            write(buffer, part.getValue().getBytes(charsetOf(TEXT)));
+            write(buffer, CRLF);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void writePartHeader(ByteArrayOutputStream buffer, String disposition, String type, String transferEncoding) {
+        String header = "--" + boundary + "\r\n"
+                + "Content-Disposition: " + disposition + "\r\n"
+                + "Content-Type: " + type + "\r\n"
+                + "Content-Transfer-Encoding: " + transferEncoding + "\r\n"
+                + "\r\n";
+        write(buffer, header.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void write(ByteArrayOutputStream buffer, byte[] bytes) {
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private static Charset charsetOf(ContentType type) {
+        return type.getCharset() != null ? type.getCharset() : StandardCharsets.ISO_8859_1;
+    }
+
+    private static String generateBoundary() {
+        int length = 30 + random.nextInt(11);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = BOUNDARY_CHARS[random.nextInt(BOUNDARY_CHARS.length)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * One request body: the shared fixed parts, the per-request parts and the file part header, the file
+     * and the closing boundary. Repeatable, since the file is read again for each write.
+     */
+    private final class TemplateEntity extends AbstractHttpEntity {
+        private final byte[] requestParts;
+        private final File file;
+
+        private TemplateEntity(byte[] requestParts, File file) {
+            this.requestParts = requestParts;
+            this.file = file;
+            setContentType(multipartType.toString());
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return fixedParts.length + requestParts.length + file.length() + CRLF.length + closing.length;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                    new ByteArrayInputStream(fixedParts),
+                    new ByteArrayInputStream(requestParts),
+                    new FileInputStream(file),
+                    new ByteArrayInputStream(CRLF),
+                    new ByteArrayInputStream(closing))));
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(fixedParts);
+            out.write(requestParts);
+            StreamingFileBody.writeFile(file, out);
+            out.write(CRLF);
+            out.write(closing);
+            out.flush();
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.constants.Constants;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide admission of SDK network work by priority.
+ *
+ * <p>Uploads take one of a fixed number of slots before they are sent, {@value #DEFAULT_SLOTS} by
+ * default or {@code SMARTUI_NETWORK_SLOTS}. When slots are scarce, waiting work is admitted by
+ * {@link Priority}, then in arrival order; {@link Priority#BACKGROUND} work never takes the last
+ * quarter of the slots, so a test thread always finds one soon. Background work that waited
+ * {@value #AGING_MS} ms is ordered like blocking work, so it is not starved by a steady stream of test
+ * uploads, but it still only runs within its share of the slots.
+ *
+ * <p>The priority is taken from the calling thread, see {@link #callAs(Priority, Callable)}; work that
+ * sets none is {@link Priority#BLOCKING}. Queued and running work and wait times are published per
+ * priority as {@code smartui.scheduler.<priority>.queued}, {@code .running} and {@code .wait.ms}.
+ */
+public class NetworkScheduler {
+    public enum Priority {
+        /** Work a test thread is blocked on, e.g. a sync snapshot or an app screenshot. */
+        BLOCKING,
+        /** Journal drains, bulk PDF uploads and prefetching. */
+        BACKGROUND
+    }
+
+    public static final int DEFAULT_SLOTS = 16;
+    public static final long AGING_MS = 2000;
+
+    private static final NetworkScheduler INSTANCE = new NetworkScheduler(readSlots());
+    private static final ThreadLocal<Priority> currentPriority = new ThreadLocal<>();
+
+    private final int slots;
+    private final int backgroundSlots;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final int[] running = new int[Priority.values().length];
+    private int runningTotal;
+    private long sequence;
+
+    NetworkScheduler(int slots) {
+        this.slots = Math.max(1, slots);
+        this.backgroundSlots = Math.max(1, this.slots - Math.max(1, this.slots / 4));
+    }
+
+    public static NetworkScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs {@code work} on the calling thread with the given priority for the network work it does.
+     */
+    public static <T> T callAs(Priority priority, Callable<T> work) throws Exception {
+        Priority previous = currentPriority.get();
+        currentPriority.set(priority);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) {
+                currentPriority.set(previous);
+            } else {
+                currentPriority.remove();
+            }
+        }
+    }
+
+    public static Priority currentPriority() {
+        Priority priority = currentPriority.get();
+        return priority != null ? priority : Priority.BLOCKING;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public synchronized int getQueued(Priority priority) {
+        int queued = 0;
+        for (Waiter waiter : waiters) {
+            if (waiter.priority == priority) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    public synchronized int getRunning(Priority priority) {
+        return running[priority.ordinal()];
+    }
+
+    /**
+     * Waits for a slot for the calling thread's priority.
+     * @return the slot, to be closed once the request completed
+     */
+    public Slot acquire() throws InterruptedException {
+        Priority priority = currentPriority();
+        long startedAt = System.nanoTime();
+        synchronized (this) {
+            Waiter waiter = new Waiter(priority, startedAt, sequence++);
+            waiters.add(waiter);
+            publish(priority);
+            try {
+                while (next() != waiter) {
+                    // Wake up at least once per aging step to re-evaluate promotions
+                    TimeUnit.MILLISECONDS.timedWait(this, AGING_MS);
+                }
+            } finally {
+                waiters.remove(waiter);
+                publish(priority);
+                // A waiter leaving may unblock the one behind it
+                notifyAll();
+            }
+            running[priority.ordinal()]++;
+            runningTotal++;
+            publish(priority);
+        }
+        SmartUIMetrics.recordDuration(metric(priority, "wait.ms"),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return new Slot(priority);
+    }
+
+    /**
+     * @return the waiter to admit now, or null if none may run yet
+     */
+    private Waiter next() {
+        if (runningTotal >= slots || waiters.isEmpty()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        List<Waiter> ordered = new ArrayList<>(waiters);
+        ordered.sort(Comparator.comparingInt((Waiter w) -> w.effectivePriority(now)).thenComparingLong(w -> w.sequence));
+        for (Waiter waiter : ordered) {
+            // Aging only reorders waiters, the reserve is kept by the priority work was submitted with
+            if (waiter.priority != Priority.BACKGROUND || runningTotal < backgroundSlots) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void release(Priority priority) {
+        running[priority.ordinal()]--;
+        runningTotal--;
+        publish(priority);
+        notifyAll();
+    }
+
+    private void publish(Priority priority) {
+        SmartUIMetrics.setGauge(metric(priority, "queued"), getQueued(priority));
+        SmartUIMetrics.setGauge(metric(priority, "running"), running[priority.ordinal()]);
+    }
+
+    private static String metric(Priority priority, String name) {
+        return Constants.Metrics.SCHEDULER_PREFIX + priority.name().toLowerCase(Locale.ROOT) + "." + name;
+    }
+
+    private static int readSlots() {
+        String value = System.getenv("SMARTUI_NETWORK_SLOTS");
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                // Use the default slots
+            }
+        }
+        return DEFAULT_SLOTS;
+    }
+
+    private static final class Waiter {
+        private final Priority priority;
+        private final long enqueuedAt;
+        private final long sequence;
+
+        private Waiter(Priority priority, long enqueuedAt, long sequence) {
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+            this.sequence = sequence;
+        }
+
+        private int effectivePriority(long now) {
+            long promotions = TimeUnit.NANOSECONDS.toMillis(now - enqueuedAt) / AGING_MS;
+            return (int) Math.max(0, priority.ordinal() - promotions);
+        }
+    }
+
+    /**
+     * Slot taken in the {@link NetworkScheduler}, released by {@link #close()}.
+     */
+    public final class Slot implements AutoCloseable {
+        private final Priority priority;
+        private boolean released;
+
+        private Slot(Priority priority) {
+            this.priority = priority;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(priority);
+        }
+    }
+}
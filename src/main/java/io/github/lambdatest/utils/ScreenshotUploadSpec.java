@@ -0,0 +1,191 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.models.BuildData;
+import io.github.lambdatest.models.UploadSnapshotRequest;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.github.lambdatest.constants.Constants.TEST_TYPE;
+
+/**
+ * Immutable description of a screenshot upload, shared by all chunks of the screenshot.
+ *
+ * <p>The form fields that are the same for every chunk are encoded once into a {@link MultipartTemplate};
+ * each chunk only adds {@code chunkCount}, {@code isLastChunk} and the image. Values are copied from the
+ * {@link UploadSnapshotRequest}, which is left untouched.
+ */
+public final class ScreenshotUploadSpec {
+    private static final ContentType PNG = ContentType.create("image/png");
+
+    private final String projectToken;
+    private final String buildId;
+    private final String buildName;
+    private final boolean baseline;
+    private final String screenshotName;
+    private final String screenshotHash;
+    private final String browserName;
+    private final String deviceName;
+    private final String os;
+    private final String viewport;
+    private final String uploadChunk;
+    private final String fullPage;
+    private final String statusBarHeight;
+    private final String cropStatusBar;
+    private final String navigationBarHeight;
+    private final String cropFooter;
+    private final String ignoreBoxes;
+    private final String selectBoxes;
+    private final MultipartTemplate template;
+
+    private ScreenshotUploadSpec(UploadSnapshotRequest request, BuildData data) {
+        this.projectToken = request.getProjectToken();
+        this.buildId = data.getBuildId();
+        this.buildName = data.getName();
+        this.baseline = data.getBaseline();
+        this.screenshotName = request.getScreenshotName();
+        this.screenshotHash = request.getScreenshotHash();
+        this.browserName = request.getBrowserName();
+        this.deviceName = request.getDeviceName();
+        this.os = request.getOs();
+        this.viewport = request.getViewport();
+        this.uploadChunk = request.getUploadChunk();
+        this.fullPage = request.getFullPage();
+        // A custom bar height replaces the default cropping of that bar
+        this.statusBarHeight = request.getStatusBarHeight() != null ? request.getStatusBarHeight() : "";
+        this.cropStatusBar = request.getStatusBarHeight() != null ? "false" : request.getCropStatusBar();
+        this.navigationBarHeight = request.getNavigationBarHeight() != null ? request.getNavigationBarHeight() : "";
+        this.cropFooter = request.getNavigationBarHeight() != null ? "false" : request.getCropFooter();
+        this.ignoreBoxes = request.getIgnoreBoxes();
+        this.selectBoxes = request.getSelectBoxes();
+        this.template = new MultipartTemplate(fixedParts());
+    }
+
+    public static ScreenshotUploadSpec of(UploadSnapshotRequest request, BuildData data) {
+        return new ScreenshotUploadSpec(request, data);
+    }
+
+    private Map<String, String> fixedParts() {
+        Map<String, String> parts = new LinkedHashMap<>();
+        parts.put("buildId", buildId);
+        parts.put("buildName", buildName);
+        parts.put("baseline", Boolean.toString(baseline));
+        parts.put("screenshotName", screenshotName);
+        parts.put("browser", browserName);
+        parts.put("deviceName", deviceName);
+        parts.put("os", os);
+        parts.put("viewport", viewport);
+        parts.put("uploadChunk", uploadChunk);
+        parts.put("projectType", TEST_TYPE);
+        parts.put("screenshotHash", screenshotHash);
+        if (fullPage != null) {
+            parts.put("fullPage", fullPage);
+        }
+        parts.put("statusBarHeight", statusBarHeight);
+        if (cropStatusBar != null) {
+            parts.put("cropStatusBar", cropStatusBar);
+        }
+        parts.put("navigationBarHeight", navigationBarHeight);
+        if (cropFooter != null) {
+            parts.put("cropFooter", cropFooter);
+        }
+        if (ignoreBoxes != null && !ignoreBoxes.isEmpty()) {
+            parts.put("ignoreBoxes", ignoreBoxes);
+        }
+        if (selectBoxes != null && !selectBoxes.isEmpty()) {
+            parts.put("selectBoxes", selectBoxes);
+        }
+        return parts;
+    }
+
+    /**
+     * Creates the body uploading one chunk of the screenshot.
+     * @param chunkCount index of the chunk, or null for a screenshot sent in one piece
+     * @param isLastChunk "true" for the last chunk, or null for a screenshot sent in one piece
+     */
+    public HttpEntity newChunkEntity(File screenshot, Integer chunkCount, String isLastChunk) {
+        Map<String, String> parts = new LinkedHashMap<>();
+        if (isLastChunk != null) {
+            parts.put("isLastChunk", isLastChunk);
+        }
+        if (chunkCount != null) {
+            parts.put("chunkCount", String.valueOf(chunkCount));
+        }
+        return template.newEntity(parts, "screenshot", screenshot, screenshotName, PNG);
+    }
+
+    public String getProjectToken() {
+        return projectToken;
+    }
+
+    public String getBuildId() {
+        return buildId;
+    }
+
+    public String getBuildName() {
+        return buildName;
+    }
+
+    public boolean isBaseline() {
+        return baseline;
+    }
+
+    public String getScreenshotName() {
+        return screenshotName;
+    }
+
+    public String getScreenshotHash() {
+        return screenshotHash;
+    }
+
+    public String getBrowserName() {
+        return browserName;
+    }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    public String getOs() {
+        return os;
+    }
+
+    public String getViewport() {
+        return viewport;
+    }
+
+    public String getUploadChunk() {
+        return uploadChunk;
+    }
+
+    public String getFullPage() {
+        return fullPage;
+    }
+
+    public String getStatusBarHeight() {
+        return statusBarHeight;
+    }
+
+    public String getCropStatusBar() {
+        return cropStatusBar;
+    }
+
+    public String getNavigationBarHeight() {
+        return navigationBarHeight;
+    }
+
+    public String getCropFooter() {
+        return cropFooter;
+    }
+
+    public String getIgnoreBoxes() {
+        return ignoreBoxes;
+    }
+
+    public String getSelectBoxes() {
+        return selectBoxes;
+    }
+}
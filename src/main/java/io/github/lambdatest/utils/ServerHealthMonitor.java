@@ -0,0 +1,157 @@
+package io.github.lambdatest.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the health of one SmartUI CLI server so that the snapshot path does not need a
+ * {@code /healthcheck} round trip of its own.
+ *
+ * <p>Health is derived from two sources: a background heartbeat probing the server at a fixed
+ * interval, and the outcome of real requests reported through {@link #recordSuccess()} and
+ * {@link #recordFailure(Throwable)}. A success makes the server {@link State#HEALTHY}; a failure
+ * makes it {@link State#DEGRADED}, and {@value #UNHEALTHY_THRESHOLD} consecutive failures make it
+ * {@link State#UNHEALTHY}. Only an unhealthy server is reported as unavailable, and the next
+ * successful heartbeat or request brings it back. Without a running heartbeat nothing else would
+ * reach the server, so an unhealthy server then lets one request through every
+ * {@value #TRIAL_INTERVAL_MS} ms to find out whether it recovered.
+ *
+ * <p>{@link #isAvailable()} only reads volatile fields and is meant for hot paths.
+ */
+public class ServerHealthMonitor {
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_MS = 5000;
+    public static final int UNHEALTHY_THRESHOLD = 2;
+    public static final long TRIAL_INTERVAL_MS = 5000;
+
+    public enum State {
+        /** No probe or request outcome yet */
+        UNKNOWN,
+        HEALTHY,
+        /** The last probe or request failed */
+        DEGRADED,
+        UNHEALTHY
+    }
+
+    private static final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "smartui-health-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private final String serverAddress;
+    private final BooleanSupplier probe;
+    private final long heartbeatIntervalMs;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile State state = State.UNKNOWN;
+    private volatile long lastCheckedAt;
+    private final AtomicLong nextTrialAt = new AtomicLong();
+    private volatile ScheduledFuture<?> heartbeat;
+
+    /**
+     * @param probe active health check of the server, called from the heartbeat thread
+     * @param heartbeatIntervalMs interval between heartbeats, 0 or less to rely on request outcomes only
+     */
+    public ServerHealthMonitor(String serverAddress, BooleanSupplier probe, long heartbeatIntervalMs) {
+        this.serverAddress = serverAddress;
+        this.probe = probe;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+
+    public synchronized void start() {
+        if (heartbeat != null || heartbeatIntervalMs <= 0) {
+            return;
+        }
+        heartbeat = heartbeats.scheduleWithFixedDelay(this::check, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+            heartbeat = null;
+        }
+        state = State.UNKNOWN;
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * Probes the server now, on the calling thread.
+     * @return true if the server answered
+     */
+    public boolean check() {
+        boolean healthy;
+        try {
+            healthy = probe.getAsBoolean();
+        } catch (RuntimeException e) {
+            healthy = false;
+        }
+        if (healthy) {
+            recordSuccess();
+        } else {
+            recordFailure(null);
+        }
+        return healthy;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        lastCheckedAt = System.currentTimeMillis();
+        if (state != State.HEALTHY) {
+            if (state == State.UNHEALTHY || state == State.DEGRADED) {
+                log.info("SmartUI server on " + serverAddress + " is healthy again");
+            }
+            state = State.HEALTHY;
+        }
+    }
+
+    public void recordFailure(Throwable cause) {
+        int failures = consecutiveFailures.incrementAndGet();
+        lastCheckedAt = System.currentTimeMillis();
+        State next = failures >= UNHEALTHY_THRESHOLD ? State.UNHEALTHY : State.DEGRADED;
+        if (state != next) {
+            if (next == State.UNHEALTHY) {
+                nextTrialAt.set(System.currentTimeMillis() + TRIAL_INTERVAL_MS);
+                log.warning("SmartUI server on " + serverAddress + " is unhealthy after " + failures + " failed checks" +
+                        (cause != null ? ": " + cause.getMessage() : ""));
+            }
+            state = next;
+        }
+    }
+
+    /**
+     * @return false only if the server is known to be unhealthy, except for one caller every
+     * {@value #TRIAL_INTERVAL_MS} ms while no heartbeat runs, whose request must report its outcome
+     */
+    public boolean isAvailable() {
+        if (state != State.UNHEALTHY) {
+            return true;
+        }
+        if (heartbeat != null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long trialAt = nextTrialAt.get();
+        return now >= trialAt && nextTrialAt.compareAndSet(trialAt, now + TRIAL_INTERVAL_MS);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return time of the last heartbeat or reported request outcome, 0 if there was none
+     */
+    public long getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+}
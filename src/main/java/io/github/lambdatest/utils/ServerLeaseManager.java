@@ -0,0 +1,319 @@
+package io.github.lambdatest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Shares one SmartUI CLI server per port between all JVMs on a machine, e.g. parallel Surefire or
+ * Gradle test forks.
+ *
+ * <p>Each port has a lease file ({@code smartui-<port>.json}) in the lease directory, guarded by a
+ * file lock. The lease records the PID of the server, its port, its build and the processes holding
+ * it. The first process to acquire the lease starts the server; later processes register as holders
+ * and reuse it. On release the last holder stops the server and removes the lease. Holders that died
+ * without releasing are detected through their PID and start time and pruned, so a crashed fork
+ * never keeps the server alive forever, and a server whose holders all crashed is restarted or
+ * adopted by the next process. A server whose recorded process is gone is restarted by the next
+ * process to acquire the lease, without waiting for its health check to time out.
+ */
+public class ServerLeaseManager {
+    public static final String DEFAULT_DIRECTORY_NAME = "smartui-lease";
+    public static final String LEASE_DIR_ENV = "SMARTUI_LEASE_DIR";
+
+    // FileChannel locks are held per JVM, so threads of the same JVM are serialized separately
+    private static final ConcurrentHashMap<Path, ReentrantLock> jvmLocks = new ConcurrentHashMap<>();
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private final Path directory;
+    private final int port;
+    private final Path lockFile;
+    private final Path leaseFile;
+    private final Path logFile;
+
+    /**
+     * Starts the server while the lease is locked and returns its PID, or -1 if unknown.
+     */
+    public interface ServerStarter {
+        long start() throws Exception;
+    }
+
+    public interface ServerCheck {
+        boolean isHealthy();
+    }
+
+    public interface ServerStopper {
+        void stop() throws Exception;
+    }
+
+    public ServerLeaseManager(Path directory, int port) {
+        this.directory = directory != null ? directory : defaultDirectory();
+        this.port = port;
+        this.lockFile = this.directory.resolve("smartui-" + port + ".lock");
+        this.leaseFile = this.directory.resolve("smartui-" + port + ".json");
+        this.logFile = this.directory.resolve("smartui-" + port + ".log");
+    }
+
+    /**
+     * @return the directory from {@value #LEASE_DIR_ENV}, or {@code <java.io.tmpdir>/smartui-lease}
+     */
+    public static Path defaultDirectory() {
+        String env = System.getenv(LEASE_DIR_ENV);
+        if (env != null && !env.trim().isEmpty()) {
+            return Paths.get(env.trim());
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+    }
+
+    public Path getLeaseFile() {
+        return leaseFile;
+    }
+
+    /**
+     * @return the file the output of the shared server is written to, since it outlives the JVM that started it
+     */
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Registers this process as a holder of the server on this port. If another live process already
+     * holds a healthy server it is reused, otherwise {@code starter} is called to start one.
+     * @param buildName build the caller expects the server to run, or null to accept any build
+     * @throws Exception if the running server belongs to a different build, or starting it failed
+     */
+    public Lease acquire(String buildName, ServerCheck check, ServerStarter starter) throws Exception {
+        return withLock(() -> {
+            LeaseRecord record = read();
+            if (record != null && prune(record)) {
+                log.info("Removed crashed holders from SmartUI server lease " + leaseFile);
+            }
+
+            if (record != null && !record.holders.isEmpty() && isServerGone(record)) {
+                log.warning("SmartUI server process " + record.serverPid + " recorded in lease " + leaseFile +
+                        " is gone, starting a new one");
+            } else if (record != null && !record.holders.isEmpty()) {
+                if (buildName != null && !buildName.trim().isEmpty() && record.buildName != null
+                        && !record.buildName.equals(buildName)) {
+                    throw new Exception("SmartUI server on port " + port + " is leased for build '" + record.buildName +
+                            "', expected '" + buildName + "'");
+                }
+                if (check.isHealthy()) {
+                    addHolder(record);
+                    write(record);
+                    log.info("Joined SmartUI server lease on port " + port + " (" + holderCount(record) + " holders)");
+                    return new Lease(false);
+                }
+                log.warning("SmartUI server recorded in lease " + leaseFile + " is not responding, starting a new one");
+            }
+
+            if (record == null) {
+                record = new LeaseRecord();
+            }
+            record.serverPid = starter.start();
+            record.serverStartedAt = record.serverPid > 0
+                    ? ProcessHandle.of(record.serverPid).map(ServerLeaseManager::startTime).orElse(0L) : 0;
+            record.port = port;
+            record.buildName = buildName;
+            addHolder(record);
+            write(record);
+            log.info("Started SmartUI server under lease " + leaseFile);
+            return new Lease(true);
+        });
+    }
+
+    /**
+     * Removes this process from the holders of the lease. If no live holder remains, {@code stopper}
+     * is called and the lease is deleted.
+     * @return true if this call stopped the server
+     */
+    public boolean release(Lease lease, ServerStopper stopper) throws Exception {
+        if (lease == null || lease.released) {
+            return false;
+        }
+        lease.released = true;
+        return withLock(() -> {
+            LeaseRecord record = read();
+            if (record != null) {
+                removeHolder(record);
+                prune(record);
+            }
+            if (record == null || record.holders.isEmpty()) {
+                log.info("Last holder of SmartUI server lease on port " + port + ", stopping server");
+                try {
+                    stopper.stop();
+                } finally {
+                    Files.deleteIfExists(leaseFile);
+                }
+                return true;
+            }
+            write(record);
+            log.info("Released SmartUI server lease on port " + port + ", " + holderCount(record) + " holders remain");
+            return false;
+        });
+    }
+
+    private <T> T withLock(Callable<T> action) throws Exception {
+        Files.createDirectories(directory);
+        ReentrantLock jvmLock = jvmLocks.computeIfAbsent(lockFile.toAbsolutePath(), k -> new ReentrantLock());
+        jvmLock.lock();
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            return action.call();
+        } finally {
+            jvmLock.unlock();
+        }
+    }
+
+    private LeaseRecord read() {
+        if (!Files.exists(leaseFile)) {
+            return null;
+        }
+        try {
+            LeaseRecord record = gson.fromJson(new String(Files.readAllBytes(leaseFile), StandardCharsets.UTF_8), LeaseRecord.class);
+            if (record != null && record.holders == null) {
+                record.holders = new ArrayList<>();
+            }
+            return record;
+        } catch (IOException | JsonParseException e) {
+            log.warning("Ignoring unreadable SmartUI server lease " + leaseFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(LeaseRecord record) throws IOException {
+        record.updatedAt = System.currentTimeMillis();
+        Path temp = directory.resolve(leaseFile.getFileName() + ".tmp");
+        Files.write(temp, gson.toJson(record).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, leaseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Removes holders whose process is gone, or whose PID now belongs to a different process.
+     * @return true if any holder was removed
+     */
+    private static boolean prune(LeaseRecord record) {
+        boolean removed = false;
+        for (Iterator<Holder> it = record.holders.iterator(); it.hasNext(); ) {
+            Holder holder = it.next();
+            Optional<ProcessHandle> process = ProcessHandle.of(holder.pid);
+            boolean alive = process.isPresent() && process.get().isAlive()
+                    && (holder.startedAt == 0 || holder.startedAt == startTime(process.get()));
+            if (!alive || holder.count <= 0) {
+                it.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return true if the server process recorded in the lease has exited, or its PID now belongs to a
+     * different process; false if it is alive or its PID is unknown, e.g. for an adopted server
+     */
+    private static boolean isServerGone(LeaseRecord record) {
+        if (record.serverPid <= 0) {
+            return false;
+        }
+        Optional<ProcessHandle> process = ProcessHandle.of(record.serverPid);
+        return !process.isPresent() || !process.get().isAlive()
+                || (record.serverStartedAt != 0 && record.serverStartedAt != startTime(process.get()));
+    }
+
+    private static void addHolder(LeaseRecord record) {
+        Holder holder = findOwnHolder(record);
+        if (holder == null) {
+            holder = new Holder();
+            holder.pid = ProcessHandle.current().pid();
+            holder.startedAt = startTime(ProcessHandle.current());
+            record.holders.add(holder);
+        }
+        holder.count++;
+    }
+
+    private static void removeHolder(LeaseRecord record) {
+        Holder holder = findOwnHolder(record);
+        if (holder != null && --holder.count <= 0) {
+            record.holders.remove(holder);
+        }
+    }
+
+    private static Holder findOwnHolder(LeaseRecord record) {
+        long pid = ProcessHandle.current().pid();
+        for (Holder holder : record.holders) {
+            if (holder.pid == pid) {
+                return holder;
+            }
+        }
+        return null;
+    }
+
+    private static int holderCount(LeaseRecord record) {
+        int count = 0;
+        for (Holder holder : record.holders) {
+            count += holder.count;
+        }
+        return count;
+    }
+
+    private static long startTime(ProcessHandle process) {
+        return process.info().startInstant().map(instant -> instant.toEpochMilli()).orElse(0L);
+    }
+
+    /**
+     * A holder's registration on the server lease, returned by {@link #acquire}.
+     */
+    public static class Lease {
+        private final boolean started;
+        private volatile boolean released;
+
+        Lease(boolean started) {
+            this.started = started;
+        }
+
+        /**
+         * @return true if this holder started the server, false if it joined a running one
+         */
+        public boolean isStarted() {
+            return started;
+        }
+
+        public boolean isReleased() {
+            return released;
+        }
+    }
+
+    private static class LeaseRecord {
+        long serverPid = -1;
+        long serverStartedAt;
+        int port;
+        String buildName;
+        long updatedAt;
+        List<Holder> holders = new ArrayList<>();
+    }
+
+    private static class Holder {
+        long pid;
+        long startedAt;
+        int count;
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.models.BuildData;
+
+/**
+ * Coordinates the shards of one logical test run, e.g. a suite split across CI machines, so that they
+ * upload into a single build.
+ *
+ * <p>Every shard joins the run when it starts. The first shard to join creates the build and the others
+ * receive the same one. When a shard is done it completes its part of the run; only the completion of
+ * the last of the N shards reports that the build may be finalized. A run whose build was finalized is
+ * over; joining it again starts a new run with a new build.
+ *
+ * <p>A shard that crashes never completes, so the build is not finalized and stays open. Rerun that
+ * shard with the same run id and index: it joins the same build, and its completion finalizes it.
+ */
+public interface ShardCoordinator {
+
+    /**
+     * Creates the build shared by all shards, called by exactly one shard of a run.
+     */
+    interface BuildCreator {
+        BuildData create() throws Exception;
+    }
+
+    /**
+     * Registers a shard with the run and returns the run's build, creating it through {@code creator} if
+     * no shard did so yet.
+     * @param runId identifier shared by all shards of the run
+     * @param shardIndex index of this shard, from 0 to {@code totalShards - 1}
+     * @param totalShards number of shards in the run
+     * @throws Exception if the build could not be created, or the run was joined with a different shard count
+     */
+    BuildData joinBuild(String runId, int shardIndex, int totalShards, BuildCreator creator) throws Exception;
+
+    /**
+     * Reports a shard as done and deregisters it.
+     * @return true if this was the last shard of the run to complete, in which case the caller finalizes the build
+     */
+    boolean completeShard(String runId, int shardIndex) throws Exception;
+}
@@ -0,0 +1,103 @@
+package io.github.lambdatest.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable connection settings of one SmartUI session: the CLI server address, the project token,
+ * timeouts, an HTTP client with a connection pool bound to that server and the
+ * {@link ServerHealthMonitor} tracking that server.
+ *
+ * <p>A context is created once per {@link io.github.lambdatest.SmartUI} instance and passed down to
+ * {@link io.github.lambdatest.SmartUISnapshot} and {@link SmartUIUtil}, so several sessions in one JVM
+ * (for example one build per browser) talk to their own server without sharing global state such as
+ * the {@code SMARTUI_SERVER_ADDRESS} system property. Contexts are safe to share between threads.
+ */
+public final class SmartUIClientContext {
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 10000;
+    // Snapshot status requests long-poll for up to 15 minutes, so reads are not bounded by default
+    public static final int DEFAULT_READ_TIMEOUT_MS = 0;
+    private static final int HEALTH_PROBE_TIMEOUT_MS = 5000;
+
+    private final String serverAddress;
+    private final String projectToken;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final HttpClientUtil httpClient;
+    private final ServerHealthMonitor healthMonitor;
+    // The DOM serializer script is fixed for the lifetime of a server, so it is fetched once per context
+    private final AtomicReference<String> domSerializer = new AtomicReference<>();
+
+    public SmartUIClientContext(String serverAddress, String projectToken) {
+        this(serverAddress, projectToken, DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_READ_TIMEOUT_MS,
+                ServerHealthMonitor.DEFAULT_HEARTBEAT_INTERVAL_MS);
+    }
+
+    public SmartUIClientContext(String serverAddress, String projectToken, int connectTimeoutMs, int readTimeoutMs,
+                                long heartbeatIntervalMs) {
+        if (serverAddress == null || serverAddress.trim().isEmpty()) {
+            throw new IllegalArgumentException("SmartUI server address is required");
+        }
+        this.serverAddress = serverAddress;
+        this.projectToken = projectToken;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.httpClient = new HttpClientUtil(serverAddress, connectTimeoutMs, readTimeoutMs);
+        int probeTimeoutMs = connectTimeoutMs > 0 ? Math.min(connectTimeoutMs, HEALTH_PROBE_TIMEOUT_MS) : HEALTH_PROBE_TIMEOUT_MS;
+        this.healthMonitor = new ServerHealthMonitor(serverAddress, () -> httpClient.checkHealth(probeTimeoutMs),
+                heartbeatIntervalMs);
+    }
+
+    public String getServerAddress() {
+        return serverAddress;
+    }
+
+    public String getProjectToken() {
+        return projectToken;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public int getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    /**
+     * @return the pooled client bound to {@link #getServerAddress()}, shared by all users of this context
+     */
+    public HttpClientUtil getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return the health of {@link #getServerAddress()}, fed by a heartbeat and by the outcome of snapshot requests
+     */
+    public ServerHealthMonitor getHealthMonitor() {
+        return healthMonitor;
+    }
+
+    /**
+     * @return the DOM serializer response cached for this server, or null if it has not been fetched yet
+     */
+    public String getCachedDomSerializer() {
+        return domSerializer.get();
+    }
+
+    public void cacheDomSerializer(String response) {
+        domSerializer.set(response);
+    }
+
+    public void clearDomSerializer() {
+        domSerializer.set(null);
+    }
+
+    @Override
+    public String toString() {
+        return "SmartUIClientContext{" +
+                "serverAddress='" + serverAddress + '\'' +
+                ", connectTimeoutMs=" + connectTimeoutMs +
+                ", readTimeoutMs=" + readTimeoutMs +
+                '}';
+    }
+}
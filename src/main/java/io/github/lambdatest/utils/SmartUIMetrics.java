@@ -0,0 +1,112 @@
+package io.github.lambdatest.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide registry of SDK metrics: timers for durations such as server startup and gauges for
+ * point-in-time values such as queue depths. Metric names are defined in
+ * {@link io.github.lambdatest.constants.Constants.Metrics}.
+ *
+ * <p>All methods are thread safe and cheap enough to be called on hot paths.
+ */
+public final class SmartUIMetrics {
+    private static final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+
+    private SmartUIMetrics() {
+    }
+
+    public static void recordDuration(String name, long millis) {
+        timers.computeIfAbsent(name, k -> new Timer()).record(millis);
+    }
+
+    /**
+     * @return the timer with the given name, or null if nothing has been recorded for it
+     */
+    public static Timer getTimer(String name) {
+        return timers.get(name);
+    }
+
+    public static void setGauge(String name, long value) {
+        gauges.computeIfAbsent(name, k -> new AtomicLong()).set(value);
+    }
+
+    /**
+     * Adds {@code delta} to a gauge and returns the new value.
+     */
+    public static long addToGauge(String name, long delta) {
+        return gauges.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public static long getGauge(String name) {
+        AtomicLong gauge = gauges.get(name);
+        return gauge != null ? gauge.get() : 0;
+    }
+
+    /**
+     * @return all metrics by name, timers as {@link Timer} and gauges as {@link Long}, sorted by name
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> values = new TreeMap<>();
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            values.put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, AtomicLong> entry : gauges.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().get());
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    public static void reset() {
+        timers.clear();
+        gauges.clear();
+    }
+
+    /**
+     * Count, total, maximum and last value of a duration, in milliseconds.
+     */
+    public static final class Timer {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private volatile long lastMillis;
+
+        void record(long millis) {
+            count.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+            lastMillis = millis;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalMillis() {
+            return totalMillis.get();
+        }
+
+        public long getMaxMillis() {
+            return maxMillis.get();
+        }
+
+        public long getLastMillis() {
+            return lastMillis;
+        }
+
+        public double getMeanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) totalMillis.get() / n;
+        }
+
+        @Override
+        public String toString() {
+            return "Timer{count=" + getCount() + ", last=" + lastMillis + "ms, max=" + getMaxMillis() +
+                    "ms, mean=" + String.format("%.1f", getMeanMillis()) + "ms}";
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.models.SnapshotResults;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide cache for SmartUI results queries against the CLI server.
+ *
+ * <p>At the end of a parallel run many threads ask for the same results at once. Concurrent
+ * identical queries (same server, same session or whole build) are coalesced into one in-flight
+ * request whose result every caller shares. Completed results are then served from memory for a
+ * short TTL. Once the TTL has expired the next query revalidates with {@code If-None-Match} /
+ * {@code If-Modified-Since} when the server supplied validators, so an unchanged payload is not
+ * transferred or parsed again.
+ *
+ * <p>The TTL defaults to {@value #DEFAULT_TTL_MS} ms and can be changed with the
+ * {@code SMARTUI_RESULTS_CACHE_TTL_MS} environment variable or system property; 0 disables caching
+ * but keeps the coalescing of concurrent queries.
+ */
+public class SmartUIResultsCache {
+    public static final long DEFAULT_TTL_MS = 2000;
+    private static final String TTL_PROPERTY = "SMARTUI_RESULTS_CACHE_TTL_MS";
+    private static final String BUILD_KEY = "<build>";
+
+    private static final SmartUIResultsCache INSTANCE = new SmartUIResultsCache(resolveTtl());
+
+    private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<SnapshotResults>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Performs the actual request. {@code previous} is the last response for the same query, or null.
+     */
+    public interface Fetcher {
+        HttpClientUtil.ConditionalResponse fetch(HttpClientUtil.ConditionalResponse previous) throws Exception;
+    }
+
+    SmartUIResultsCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static SmartUIResultsCache getInstance() {
+        return INSTANCE;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public SnapshotResults get(String serverAddress, String sessionId, Fetcher fetcher) throws Exception {
+        String key = serverAddress + "|" + (sessionId == null || sessionId.isEmpty() ? BUILD_KEY : sessionId);
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return entry.results;
+        }
+
+        CompletableFuture<SnapshotResults> call = new CompletableFuture<>();
+        CompletableFuture<SnapshotResults> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            log.fine("Joining in-flight SmartUI results request for " + key);
+            return await(existing);
+        }
+
+        try {
+            HttpClientUtil.ConditionalResponse previous = entry != null ? entry.response : null;
+            HttpClientUtil.ConditionalResponse response = fetcher.fetch(previous);
+
+            Entry updated;
+            if (response.isNotModified() && entry != null) {
+                log.fine("SmartUI results not modified, reusing cached payload for " + key);
+                updated = new Entry(entry.response, entry.results, System.currentTimeMillis() + ttlMillis);
+            } else {
+                updated = new Entry(response, new SnapshotResults(response.getBody()), System.currentTimeMillis() + ttlMillis);
+            }
+            if (ttlMillis > 0) {
+                entries.put(key, updated);
+            }
+            call.complete(updated.results);
+            return updated.results;
+        } catch (Throwable t) {
+            // Errors too, or the callers joined on this request would wait forever
+            call.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+    private static SnapshotResults await(CompletableFuture<SnapshotResults> call) throws Exception {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static long resolveTtl() {
+        String value = System.getProperty(TTL_PROPERTY);
+        if (value == null || value.trim().isEmpty()) {
+            value = System.getenv(TTL_PROPERTY);
+        }
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Math.max(0, Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                // Use default TTL
+            }
+        }
+        return DEFAULT_TTL_MS;
+    }
+
+    private static class Entry {
+        final HttpClientUtil.ConditionalResponse response;
+        final SnapshotResults results;
+        final long expiresAt;
+
+        Entry(HttpClientUtil.ConditionalResponse response, SnapshotResults results, long expiresAt) {
+            this.response = response;
+            this.results = results;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
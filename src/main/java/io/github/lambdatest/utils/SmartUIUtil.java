@@ -2,35 +2,74 @@ package io.github.lambdatest.utils;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
+import io.github.lambdatest.exceptions.ThrottledException;
 import io.github.lambdatest.models.*;
 import com.google.gson.Gson;
 import io.github.lambdatest.constants.Constants;
 
 
 public class SmartUIUtil {
+    // Attempts of an upload the server keeps throttling, each after the Retry-After it asked for
+    private static final int MAX_THROTTLED_ATTEMPTS = 3;
+    private static final ExecutorService verificationExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smartui-token-verification");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final HttpClientUtil httpClient;
+    // Health of the server when bound to a context, null to check it with a request each time
+    private final ServerHealthMonitor healthMonitor;
+    private final SmartUIClientContext context;
     private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
     private Gson gson = new Gson();
 
     public SmartUIUtil() {
         this.httpClient = new HttpClientUtil();
+        this.healthMonitor = null;
+        this.context = null;
+    }
+
+    /**
+     * Creates a util bound to the server of the given context instead of the one configured globally.
+     * The context's pooled client is shared, so this is cheap to call per request.
+     */
+    public SmartUIUtil(SmartUIClientContext context) {
+        this.httpClient = context.getHttpClient();
+        this.healthMonitor = context.getHealthMonitor();
+        this.context = context;
     }
 
     public SmartUIUtil(String proxyHost, int proxyPort) throws Exception {
         this.httpClient = new HttpClientUtil(proxyHost, proxyPort);
+        this.healthMonitor = null;
+        this.context = null;
     }
 
     public SmartUIUtil(String proxyHost, int proxyPort, boolean allowInsecure) throws Exception {
         this.httpClient = new HttpClientUtil(proxyHost, proxyPort, allowInsecure);
+        this.healthMonitor = null;
+        this.context = null;
     }
 
     public SmartUIUtil(String proxyProtocol, String proxyHost, int proxyPort, boolean allowInsecure) throws Exception {
         this.httpClient = new HttpClientUtil(proxyProtocol, proxyHost, proxyPort, allowInsecure);
+        this.healthMonitor = null;
+        this.context = null;
     }
 
     public boolean isSmartUIRunning() {
+        if (healthMonitor != null) {
+            return healthMonitor.isAvailable();
+        }
         try {
             httpClient.isSmartUIRunning();
             return true;
@@ -45,9 +84,21 @@ public class SmartUIUtil {
     }
 
     public String fetchDOMSerializer() throws Exception {
+        if (context != null) {
+            String cached = context.getCachedDomSerializer();
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
-            return httpClient.fetchDOMSerializer();
+            String serializer = httpClient.fetchDOMSerializer();
+            recordOutcome(null);
+            if (context != null && serializer != null && !serializer.isEmpty()) {
+                context.cacheDomSerializer(serializer);
+            }
+            return serializer;
         } catch (Exception e) {
+            recordOutcome(e);
             log.severe(e.getMessage());
             throw new Exception(Constants.Errors.FETCH_DOM_FAILED, e);
         }
@@ -66,15 +117,100 @@ public class SmartUIUtil {
         data.setSnapshot(snapshot);
         data.setTestType(testType);
 
-        // Serialize to JSON using Gson
-        Gson gson = new Gson();
-        String jsonData = gson.toJson(data);
+        // The serialized copy of the DOM is held alongside the DOM until the POST completes
+        try (ByteBudget.Reservation ignored = ByteBudget.getInstance().reserve(ByteBudget.DOM, estimateBytes(snapshotDOM))) {
+            // Serialize to JSON using Gson
+            Gson gson = new Gson();
+            String jsonData = gson.toJson(data);
 
-        try {
-            return httpClient.postSnapshot(jsonData);
-        } catch (Exception e) {
-            return null;
+            try {
+                String response = withAdaptiveLimit(ByteBudget.DOM, () -> httpClient.postSnapshot(jsonData));
+                recordOutcome(null);
+                return response;
+            } catch (Exception e) {
+                recordOutcome(e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Runs an upload within the {@link AdaptiveConcurrencyLimiter} of its destination, feeding the limiter
+     * its latency or throttling. A throttled upload is retried once the limiter's {@code Retry-After} pause
+     * is over. Uploads to the remote service then wait for the {@link NetworkScheduler} to admit the calling
+     * thread's priority; the slot is only taken once the limiter admitted the upload, so no slot is held
+     * through a pause. Posts to the local CLI server do not compete for those slots.
+     */
+    private <T> T withAdaptiveLimit(String destination, Callable<T> upload) throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.forDestination(destination);
+        boolean scheduled = !ByteBudget.DOM.equals(destination);
+        for (int attempt = 1; ; attempt++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            NetworkScheduler.Slot slot = null;
+            try {
+                if (scheduled) {
+                    slot = NetworkScheduler.getInstance().acquire();
+                    // Time queued for a slot says nothing about the destination's load
+                    permit.restartClock();
+                }
+                T result = upload.call();
+                permit.success();
+                return result;
+            } catch (ThrottledException e) {
+                permit.throttled(e.getRetryAfterMillis());
+                if (attempt >= MAX_THROTTLED_ATTEMPTS) {
+                    throw e;
+                }
+                log.fine("Upload to " + destination + " throttled with status " + e.getStatusCode()
+                        + ", concurrency limit is now " + limiter.getLimit());
+            } catch (Exception e) {
+                permit.dropped();
+                throw e;
+            } finally {
+                if (slot != null) {
+                    slot.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the in-memory size of a serialized DOM from the lengths of its strings, two bytes per char.
+     */
+    private static long estimateBytes(Object value) {
+        if (value instanceof CharSequence) {
+            return 2L * ((CharSequence) value).length();
+        }
+        long bytes = 0;
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                bytes += estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                bytes += estimateBytes(element);
+            }
         }
+        return bytes;
+    }
+
+    private void recordOutcome(Exception failure) {
+        if (healthMonitor == null) {
+            return;
+        }
+        // An HTTP error status means the server answered, only transport failures count against its health
+        if (failure != null && isTransportFailure(failure)) {
+            healthMonitor.recordFailure(failure);
+        } else {
+            healthMonitor.recordSuccess();
+        }
+    }
+
+    private static boolean isTransportFailure(Exception failure) {
+        return failure instanceof java.net.SocketException
+                || failure instanceof java.io.InterruptedIOException
+                || failure instanceof java.net.UnknownHostException
+                || failure instanceof org.apache.http.NoHttpResponseException;
     }
 
     public UploadPDFResponse postPDFToSmartUI(List<File> pdfFiles, String projectToken, String buildName, String[] pdfNames) throws Exception {
@@ -93,7 +229,16 @@ public class SmartUIUtil {
             
             log.info("Uploading PDFs to SmartUI. Count: " + pdfFiles.size());
 
-            String responseString = httpClient.uploadPDFs(url, pdfFiles, projectToken, buildName, pdfNames);
+            // The files are streamed one after the other, only the copy buffer of one is held at a time
+            long bufferedBytes = 0;
+            for (File pdfFile : pdfFiles) {
+                bufferedBytes = Math.max(bufferedBytes, StreamingFileBody.bufferedBytes(pdfFile));
+            }
+            String responseString;
+            try (ByteBudget.Reservation ignored = ByteBudget.getInstance().reserve(ByteBudget.PDF, bufferedBytes)) {
+                responseString = withAdaptiveLimit(ByteBudget.PDF,
+                        () -> httpClient.uploadPDFs(url, pdfFiles, projectToken, buildName, pdfNames));
+            }
             uploadResponse = gson.fromJson(responseString, UploadPDFResponse.class);
             
             if (uploadResponse == null) {
@@ -134,6 +279,27 @@ public class SmartUIUtil {
 
     public void uploadScreenshot(File screenshotFile, UploadSnapshotRequest uploadScreenshotRequest,
                                  BuildData buildData) throws Exception {
+        uploadScreenshot(screenshotFile, ScreenshotUploadSpec.of(uploadScreenshotRequest, buildData),
+                uploadScreenshotRequest.getChunkCount(), uploadScreenshotRequest.getIsLastChunk());
+    }
+
+    /**
+     * Uploads one chunk of a screenshot described by a spec that is shared by all of its chunks.
+     * @param chunkCount index of the chunk, or null for a screenshot sent in one piece
+     * @param isLastChunk "true" for the last chunk, or null for a screenshot sent in one piece
+     */
+    public void uploadScreenshot(File screenshotFile, ScreenshotUploadSpec spec, Integer chunkCount,
+                                 String isLastChunk) throws Exception {
+        uploadScreenshot(screenshotFile, spec, chunkCount, isLastChunk, null);
+    }
+
+    /**
+     * Uploads one chunk like {@link #uploadScreenshot(File, ScreenshotUploadSpec, Integer, String)}.
+     * @param captured reservation that already holds the chunk's bytes, e.g. since its capture, which is
+     *                 shrunk by them once the upload is done; or null to reserve the copy buffer here
+     */
+    public void uploadScreenshot(File screenshotFile, ScreenshotUploadSpec spec, Integer chunkCount,
+                                 String isLastChunk, ByteBudget.Reservation captured) throws Exception {
         UploadSnapshotResponse uploadAPIResponse = new UploadSnapshotResponse();
         try {
             if(Objects.isNull(screenshotFile)){
@@ -141,7 +307,18 @@ public class SmartUIUtil {
             }
             String hostUrl = Constants.getHostUrlFromEnvOrDefault();
             String url = hostUrl + Constants.SmartUIRoutes.SMARTUI_UPLOAD_SCREENSHOT_ROUTE;
-            String uploadScreenshotResponse = httpClient.uploadScreenshot(url, screenshotFile, uploadScreenshotRequest, buildData);
+            String uploadScreenshotResponse;
+            long chunkBytes = screenshotFile.length();
+            // A covered chunk must not wait for more bytes while its holder keeps others waiting
+            try (ByteBudget.Reservation ignored = captured != null ? null : ByteBudget.getInstance().reserve(
+                    ByteBudget.SCREENSHOT, StreamingFileBody.bufferedBytes(screenshotFile))) {
+                uploadScreenshotResponse = withAdaptiveLimit(ByteBudget.SCREENSHOT,
+                        () -> httpClient.uploadScreenshot(url, screenshotFile, spec, chunkCount, isLastChunk));
+            } finally {
+                if (captured != null) {
+                    captured.shrink(chunkBytes);
+                }
+            }
             uploadAPIResponse = gson.fromJson(uploadScreenshotResponse, UploadSnapshotResponse.class);
             if (Objects.isNull(uploadAPIResponse))
                 throw new IllegalStateException("Failed to upload screenshot to SmartUI");
@@ -150,12 +327,70 @@ public class SmartUIUtil {
         }
     }
 
+    /**
+     * Verifies the project token and creates a build. A token verified within the TTL of
+     * {@link TokenVerificationCache} is not verified again. Otherwise the verification runs concurrently
+     * with build creation: a created build proves the token, and the verification result is only used
+     * to report an authentication error when build creation fails.
+     */
     public BuildResponse build(GitInfo git, String projectToken, Map<String, String> options) throws Exception {
-        boolean isAuthenticatedUser = isUserAuthenticated(projectToken);
-        if (!isAuthenticatedUser) {
-            log.severe("Authentication failed for projectToken: " + projectToken);
-            throw new Exception(Constants.Errors.USER_AUTH_ERROR);
+        String host = Constants.getHostUrlFromEnvOrDefault();
+        TokenVerificationCache tokenCache = TokenVerificationCache.getInstance();
+        if (tokenCache.isVerified(host, projectToken)) {
+            try {
+                return createBuild(git, projectToken, options);
+            } catch (Exception e) {
+                // The token may have been revoked since it was cached, verify it before reporting the failure
+                tokenCache.invalidate(host, projectToken);
+                boolean isAuthenticatedUser;
+                try {
+                    isAuthenticatedUser = isUserAuthenticated(projectToken);
+                } catch (Exception verificationFailure) {
+                    throw e;
+                }
+                if (!isAuthenticatedUser) {
+                    log.severe("Authentication failed for projectToken: " + projectToken);
+                    throw new Exception(Constants.Errors.USER_AUTH_ERROR);
+                }
+                tokenCache.recordVerified(host, projectToken);
+                throw e;
+            }
+        }
+
+        CompletableFuture<Boolean> verification = CompletableFuture.supplyAsync(() -> {
+            try {
+                return isUserAuthenticated(projectToken);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, verificationExecutor);
+
+        BuildResponse buildData;
+        try {
+            buildData = createBuild(git, projectToken, options);
+        } catch (Exception e) {
+            Boolean isAuthenticatedUser;
+            try {
+                isAuthenticatedUser = verification.get();
+            } catch (ExecutionException verificationFailure) {
+                // Neither call succeeded, the build failure is the more relevant error
+                throw e;
+            }
+            if (!isAuthenticatedUser) {
+                log.severe("Authentication failed for projectToken: " + projectToken);
+                tokenCache.invalidate(host, projectToken);
+                throw new Exception(Constants.Errors.USER_AUTH_ERROR);
+            }
+            throw e;
         }
+        tokenCache.recordVerified(host, projectToken);
+        return buildData;
+    }
+
+    /**
+     * Creates a build without verifying the project token first, for callers that already verified it.
+     */
+    public BuildResponse createBuild(GitInfo git, String projectToken, Map<String, String> options) throws Exception {
         CreateBuildRequest createBuildRequest = new CreateBuildRequest();
         if (options != null && options.containsKey("buildName")) {
             String buildNameStr = options.get("buildName");
@@ -237,14 +472,13 @@ public class SmartUIUtil {
             
             log.info("Fetching build status for build: " + buildId);
 
-            String responseString = httpClient.getBuildScreenshotsWithPolling(url, headers, maxRetries);
-            BuildScreenshotsResponse response = gson.fromJson(responseString, BuildScreenshotsResponse.class);
+            BuildScreenshotsResponse response = httpClient.fetchBuildScreenshotsWithPolling(url, headers, maxRetries);
             
             if (response == null) {
                 throw new IllegalStateException("Failed to parse build screenshots response");
             }
             
-            log.info("Number of screenshots: " + (response.getScreenshots() != null ? response.getScreenshots().size() : 0));
+            log.info("Number of screenshots: " + response.getScreenshotCount());
             if (response.getBuild() != null) {
                 log.info("Build status: " + response.getBuild().getBuildStatus());
             }
@@ -273,6 +507,28 @@ public class SmartUIUtil {
         }
     }
 
+    /**
+     * Fetches SmartUI results as a typed view. Concurrent identical queries share one request to the
+     * CLI server and results are briefly cached; see {@link SmartUIResultsCache}.
+     * @param sessionId The session ID to fetch results for (null for build-level results)
+     * @return typed SmartUI results, shared with other callers of the same query
+     */
+    public SnapshotResults getSmartUIResultsView(String sessionId) throws Exception {
+        return SmartUIResultsCache.getInstance().get(httpClient.getServerAddress(), sessionId, previous -> {
+            if (!isSmartUIRunning()) {
+                throw new IllegalStateException(Constants.Errors.SMARTUI_NOT_RUNNING);
+            }
+            try {
+                HttpClientUtil.ConditionalResponse response = httpClient.getSmartUIResults(sessionId, previous);
+                log.info("Fetched SmartUI results for sessionId: " + sessionId);
+                return response;
+            } catch (Exception e) {
+                log.severe("Failed to fetch SmartUI results: " + e.getMessage());
+                throw e;
+            }
+        });
+    }
+
     public String getSnapshotStatus(String contextId, String snapshotName, int timeout) throws Exception {
         try {
             String snapshotStatus = httpClient.getSnapshotStatus(contextId, snapshotName, timeout);
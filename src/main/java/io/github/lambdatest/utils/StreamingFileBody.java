@@ -0,0 +1,73 @@
+package io.github.lambdatest.utils;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Multipart file body that streams a file through a buffer of at most {@value #BUFFER_SIZE} bytes.
+ *
+ * <p>The memory an upload holds for its file is known up front, see {@link #bufferedBytes(File)}, so
+ * that it can be reserved in the {@link ByteBudget}.
+ */
+public class StreamingFileBody extends AbstractContentBody {
+    public static final int BUFFER_SIZE = 256 * 1024;
+
+    private final File file;
+    private final String filename;
+
+    public StreamingFileBody(File file, ContentType contentType, String filename) {
+        super(contentType);
+        this.file = file;
+        this.filename = filename;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return "binary";
+    }
+
+    @Override
+    public long getContentLength() {
+        return file.length();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        writeFile(file, out);
+    }
+
+    /**
+     * @return bytes held in memory while {@link #writeFile(File, OutputStream)} writes the file
+     */
+    public static long bufferedBytes(File file) {
+        return Math.max(1, Math.min(BUFFER_SIZE, file.length()));
+    }
+
+    /**
+     * Writes the content of {@code file} to {@code out}.
+     */
+    public static void writeFile(File file, OutputStream out) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[(int) bufferedBytes(file)];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.lambdatest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Remembers project tokens that were recently verified, so that starting a session does not call
+ * {@code /token/verify} every time.
+ *
+ * <p>Tokens are keyed by a SHA-256 hash of the API host and the token; the token itself is never
+ * stored. Verified hashes are kept in memory and persisted next to the CLI cache in
+ * {@code token-cache.json}, so forked test JVMs share them. Only successful verifications are cached.
+ *
+ * <p>Entries expire after {@value #DEFAULT_TTL_MS} ms by default, which can be changed with the
+ * {@code SMARTUI_TOKEN_CACHE_TTL_MS} environment variable or system property; 0 disables the cache.
+ */
+public class TokenVerificationCache {
+    public static final long DEFAULT_TTL_MS = 10 * 60 * 1000;
+    private static final String TTL_PROPERTY = "SMARTUI_TOKEN_CACHE_TTL_MS";
+    private static final String CACHE_FILE_NAME = "token-cache.json";
+
+    private static final TokenVerificationCache INSTANCE =
+            new TokenVerificationCache(CliResolver.defaultCacheFile().resolveSibling(CACHE_FILE_NAME), resolveTtl());
+
+    private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private final Gson gson = new Gson();
+    private final Path cacheFile;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, Long> verified = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    TokenVerificationCache(Path cacheFile, long ttlMillis) {
+        this.cacheFile = cacheFile;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static TokenVerificationCache getInstance() {
+        return INSTANCE;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * @return true if the token was verified against the host within the TTL
+     */
+    public boolean isVerified(String host, String projectToken) {
+        if (ttlMillis <= 0 || projectToken == null) {
+            return false;
+        }
+        load();
+        Long expiresAt = verified.get(key(host, projectToken));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void recordVerified(String host, String projectToken) {
+        if (ttlMillis <= 0 || projectToken == null) {
+            return;
+        }
+        load();
+        verified.put(key(host, projectToken), System.currentTimeMillis() + ttlMillis);
+        persist(null);
+    }
+
+    public void invalidate(String host, String projectToken) {
+        if (projectToken == null) {
+            return;
+        }
+        load();
+        String key = key(host, projectToken);
+        verified.remove(key);
+        persist(key);
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                verified.putAll(readFile());
+                loaded = true;
+            }
+        }
+    }
+
+    private Map<String, Long> readFile() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return new HashMap<>();
+        }
+        try {
+            Map<String, Long> entries = gson.fromJson(new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Long>>() {}.getType());
+            return entries != null ? entries : new HashMap<>();
+        } catch (Exception e) {
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * @param removedKey key to drop from the file as well, or null
+     */
+    private synchronized void persist(String removedKey) {
+        try {
+            // Merge with entries other JVMs wrote since we loaded, dropping expired ones
+            long now = System.currentTimeMillis();
+            Map<String, Long> merged = new HashMap<>();
+            for (Map.Entry<String, Long> entry : readFile().entrySet()) {
+                if (entry.getValue() != null && entry.getValue() > now) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (Map.Entry<String, Long> entry : verified.entrySet()) {
+                if (entry.getValue() > now) {
+                    merged.merge(entry.getKey(), entry.getValue(), Math::max);
+                }
+            }
+            if (removedKey != null) {
+                merged.remove(removedKey);
+            }
+
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = Files.createTempFile(cacheFile.getParent(), CACHE_FILE_NAME, ".tmp");
+            Files.write(temp, gson.toJson(merged).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.fine("Failed to write token verification cache: " + e.getMessage());
+        }
+    }
+
+    private static String key(String host, String projectToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((host + "\n" + projectToken).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long resolveTtl() {
+        String value = System.getProperty(TTL_PROPERTY);
+        if (value == null || value.trim().isEmpty()) {
+            value = System.getenv(TTL_PROPERTY);
+        }
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Math.max(0, Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                // Fall back to the default below
+            }
+        }
+        return DEFAULT_TTL_MS;
+    }
+}
@@ -0,0 +1,533 @@
+package io.github.lambdatest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import io.github.lambdatest.models.BuildData;
+import io.github.lambdatest.models.UploadSnapshotRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Durable queue of pending screenshot uploads, so that uploads leave the test's critical path and
+ * survive a crashed or killed JVM.
+ *
+ * <p>{@link #enqueue} moves the chunk into the journal's blob directory, appends an {@code enqueue}
+ * record to a memory-mapped, append-only segment file and returns. Background drainer threads upload
+ * the jobs with retries and append a {@code complete} record for each uploaded one. Since the
+ * segment is a shared mapping of the file, records reach the page cache as soon as they are written
+ * and outlive a crash of the JVM without an explicit flush.
+ *
+ * <p>Chunks of the same screenshot are drained in order by the same thread. Jobs that still fail
+ * after {@value #MAX_ATTEMPTS} attempts stay pending in the journal, and so do the later chunks of their
+ * screenshot, which are not uploaded so the build never receives a screenshot with a chunk missing. When a journal is opened it
+ * claims the segments of processes that are no longer running and replays their pending jobs, reading
+ * the segments of each journal in the order they were written.
+ *
+ * <p>The journal directory defaults to {@code <java.io.tmpdir>/smartui-journal} and can be changed
+ * with {@code SMARTUI_JOURNAL_DIR}. Records contain the project token, so the directory is created
+ * readable by the owner only where the file system supports it.
+ */
+public class UploadJournal {
+    public static final String DEFAULT_DIRECTORY_NAME = "smartui-journal";
+    public static final String JOURNAL_DIR_ENV = "SMARTUI_JOURNAL_DIR";
+    public static final int MAX_ATTEMPTS = 5;
+    public static final int DEFAULT_DRAINER_COUNT = 4;
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final long INITIAL_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 10000;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final AtomicInteger instanceCounter = new AtomicInteger();
+
+    private static final Gson gson = new Gson();
+
+    private final Logger log = LoggerUtil.createLogger("lambdatest-java-sdk");
+    private final Path directory;
+    private final Path blobDirectory;
+    private final Uploader uploader;
+    private final String segmentBase;
+    private final int segmentSize;
+    private final long initialBackoffMs;
+    private final List<LinkedBlockingQueue<UploadJob>> lanes = new ArrayList<>();
+    private final List<Thread> drainers = new ArrayList<>();
+    private final List<Path> ownSegments = new ArrayList<>();
+    private final Object drainLock = new Object();
+    private final AtomicInteger failedJobs = new AtomicInteger();
+    private final AtomicInteger completedJobs = new AtomicInteger();
+    // Groups with a job that exhausted its retries, their later jobs are held instead of uploaded
+    private final Set<String> failedGroups = ConcurrentHashMap.newKeySet();
+    private int pendingJobs;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private volatile boolean closed;
+
+    /**
+     * Performs the upload of one job, called from a drainer thread.
+     */
+    public interface Uploader {
+        void upload(UploadJob job) throws Exception;
+    }
+
+    private UploadJournal(Path directory, Uploader uploader, int segmentSize, long initialBackoffMs) {
+        this.directory = directory;
+        this.blobDirectory = directory.resolve("blobs");
+        this.uploader = uploader;
+        this.segmentSize = segmentSize;
+        this.initialBackoffMs = initialBackoffMs;
+        this.segmentBase = SEGMENT_PREFIX + ProcessHandle.current().pid() + "-" + instanceCounter.incrementAndGet() + "-";
+    }
+
+    /**
+     * Opens a journal, replays the pending jobs of crashed processes and starts the drainers.
+     */
+    public static UploadJournal open(Path directory, Uploader uploader, int drainerCount) throws IOException {
+        return open(directory, uploader, drainerCount, SEGMENT_SIZE, INITIAL_BACKOFF_MS);
+    }
+
+    static UploadJournal open(Path directory, Uploader uploader, int drainerCount, int segmentSize,
+                              long initialBackoffMs) throws IOException {
+        UploadJournal journal = new UploadJournal(directory != null ? directory : defaultDirectory(), uploader,
+                segmentSize, initialBackoffMs);
+        journal.createDirectories();
+        journal.rotateSegment();
+        for (int i = 0; i < Math.max(1, drainerCount); i++) {
+            LinkedBlockingQueue<UploadJob> lane = new LinkedBlockingQueue<>();
+            journal.lanes.add(lane);
+            Thread drainer = new Thread(() -> journal.drain(lane), "smartui-upload-drainer-" + i);
+            drainer.setDaemon(true);
+            journal.drainers.add(drainer);
+        }
+        journal.drainers.forEach(Thread::start);
+        journal.replayOrphanedSegments();
+        return journal;
+    }
+
+    public static UploadJournal open(Uploader uploader) throws IOException {
+        return open(defaultDirectory(), uploader, DEFAULT_DRAINER_COUNT);
+    }
+
+    /**
+     * @return the directory from {@value #JOURNAL_DIR_ENV}, or {@code <java.io.tmpdir>/smartui-journal}
+     */
+    public static Path defaultDirectory() {
+        String env = System.getenv(JOURNAL_DIR_ENV);
+        if (env != null && !env.trim().isEmpty()) {
+            return Paths.get(env.trim());
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+    }
+
+    /**
+     * Journals a screenshot chunk for upload and returns without waiting for it. The file is moved into
+     * the journal and deleted once uploaded.
+     * @param groupKey jobs with the same key, e.g. the chunks of one screenshot, are uploaded in order
+     */
+    public void enqueue(String groupKey, File screenshot, UploadSnapshotRequest request, BuildData buildData) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Upload journal is closed");
+        }
+        UploadJob job = new UploadJob();
+        job.id = UUID.randomUUID().toString();
+        job.groupKey = groupKey;
+        job.request = request;
+        job.buildData = buildData;
+        Path blob = blobDirectory.resolve(job.id + ".png");
+        Files.move(screenshot.toPath(), blob, StandardCopyOption.REPLACE_EXISTING);
+        job.file = blob.toString();
+
+        synchronized (drainLock) {
+            pendingJobs++;
+        }
+        try {
+            append(new JournalRecord("enqueue", job.id, job));
+        } catch (IOException e) {
+            synchronized (drainLock) {
+                pendingJobs--;
+                drainLock.notifyAll();
+            }
+            throw e;
+        }
+        laneFor(groupKey).add(job);
+    }
+
+    /**
+     * @return jobs enqueued or replayed that are not uploaded yet, excluding jobs that exhausted their retries
+     */
+    public int getPendingCount() {
+        synchronized (drainLock) {
+            return pendingJobs;
+        }
+    }
+
+    /**
+     * @return jobs uploaded since the journal was opened
+     */
+    public int getCompletedCount() {
+        return completedJobs.get();
+    }
+
+    /**
+     * @return jobs that exhausted their retries, or followed such a job in their group, and stay in the
+     *         journal for a later replay
+     */
+    public int getFailedCount() {
+        return failedJobs.get();
+    }
+
+    /**
+     * Waits until every job enqueued so far was uploaded or exhausted its retries.
+     * @return true if the journal drained within the timeout
+     */
+    public boolean awaitDrained(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (drainLock) {
+            while (pendingJobs > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                drainLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops the drainers. Pending jobs stay in the journal and are replayed by the next process; when
+     * none are left, the journal's segments are deleted.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Before the interrupt, which releases an upload in flight as if it had been drained
+        boolean drained = getPendingCount() == 0 && failedJobs.get() == 0;
+        drainers.forEach(Thread::interrupt);
+        synchronized (this) {
+            segment.force();
+            closeSegment();
+            if (drained) {
+                for (Path own : ownSegments) {
+                    try {
+                        Files.deleteIfExists(own);
+                    } catch (IOException e) {
+                        log.fine("Failed to delete journal segment " + own + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void drain(LinkedBlockingQueue<UploadJob> lane) {
+        while (!closed) {
+            UploadJob job;
+            try {
+                job = lane.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (job == null) {
+                continue;
+            }
+            boolean uploaded = false;
+            try {
+                if (job.groupKey != null && failedGroups.contains(job.groupKey)) {
+                    log.warning("Holding upload of " + job.request.getScreenshotName() +
+                            " since an earlier chunk failed, it stays in the journal");
+                } else {
+                    uploaded = uploadWithRetries(job);
+                }
+                if (uploaded) {
+                    completedJobs.incrementAndGet();
+                    append(new JournalRecord("complete", job.id, null));
+                    Files.deleteIfExists(Paths.get(job.file));
+                } else {
+                    failedJobs.incrementAndGet();
+                    if (job.groupKey != null) {
+                        failedGroups.add(job.groupKey);
+                    }
+                }
+                if (job.groupKey != null && !"false".equals(job.request.getIsLastChunk())) {
+                    // The group ends with this job
+                    failedGroups.remove(job.groupKey);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warning("Failed to record upload " + job.id + " in the journal: " + e.getMessage());
+            } finally {
+                synchronized (drainLock) {
+                    pendingJobs--;
+                    drainLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private boolean uploadWithRetries(UploadJob job) throws InterruptedException {
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                uploader.upload(job);
+                return true;
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.warning("Giving up on upload of " + job.request.getScreenshotName() + " after " + attempt +
+                            " attempts, it stays in the journal: " + e.getMessage());
+                    return false;
+                }
+                log.info("Upload of " + job.request.getScreenshotName() + " failed, retrying in " + backoff + " ms: " + e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+            }
+        }
+        return false;
+    }
+
+    private LinkedBlockingQueue<UploadJob> laneFor(String groupKey) {
+        int hash = groupKey != null ? groupKey.hashCode() : 0;
+        return lanes.get(Math.floorMod(hash, lanes.size()));
+    }
+
+    private synchronized void append(JournalRecord record) throws IOException {
+        if (segment == null) {
+            throw new IOException("Upload journal is closed");
+        }
+        byte[] payload = gson.toJson(record).getBytes(StandardCharsets.UTF_8);
+        if (payload.length + 8 > segmentSize) {
+            throw new IOException("Journal record too large: " + payload.length + " bytes");
+        }
+        if (segment.remaining() < payload.length + 8) {
+            rotateSegment();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        segment.putInt(payload.length);
+        segment.putInt((int) crc.getValue());
+        segment.put(payload);
+    }
+
+    private synchronized void rotateSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            closeSegment();
+        }
+        Path file = directory.resolve(segmentBase + (segmentIndex++) + SEGMENT_SUFFIX);
+        segmentChannel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        ownSegments.add(file);
+    }
+
+    private void closeSegment() {
+        try {
+            segmentChannel.close();
+        } catch (IOException e) {
+            log.fine("Failed to close journal segment: " + e.getMessage());
+        }
+        segment = null;
+    }
+
+    /**
+     * Claims the segments of processes that are no longer running and re-enqueues their pending jobs.
+     */
+    private void replayOrphanedSegments() {
+        List<Path> orphans = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                long pid = ownerPid(file);
+                Optional<ProcessHandle> owner = pid > 0 ? ProcessHandle.of(pid) : Optional.empty();
+                if (!ownSegments.contains(file) && !(owner.isPresent() && owner.get().isAlive())) {
+                    orphans.add(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warning("Failed to scan upload journal " + directory + ": " + e.getMessage());
+            return;
+        }
+        // A job's complete record can be in a later segment than its enqueue record
+        orphans.sort(Comparator.comparing(UploadJournal::segmentOrder, UploadJournal::compareSegmentOrder));
+
+        Map<String, UploadJob> pending = new LinkedHashMap<>();
+        List<Path> claimedSegments = new ArrayList<>();
+        for (Path orphan : orphans) {
+            // Renaming claims the segment, so two processes starting together never replay it twice
+            Path claimed = orphan.resolveSibling(orphan.getFileName() + ".claimed-" + ProcessHandle.current().pid());
+            try {
+                Files.move(orphan, claimed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                continue;
+            }
+            readSegment(claimed, pending);
+            claimedSegments.add(claimed);
+        }
+
+        if (!pending.isEmpty()) {
+            log.info("Replaying " + pending.size() + " pending uploads from the journal in " + directory);
+        }
+        for (UploadJob job : pending.values()) {
+            if (!Files.isRegularFile(Paths.get(job.file))) {
+                continue;
+            }
+            try {
+                synchronized (drainLock) {
+                    pendingJobs++;
+                }
+                append(new JournalRecord("enqueue", job.id, job));
+                laneFor(job.groupKey).add(job);
+            } catch (IOException e) {
+                synchronized (drainLock) {
+                    pendingJobs--;
+                }
+                log.warning("Failed to replay upload " + job.id + ": " + e.getMessage());
+            }
+        }
+        // Only once their pending jobs are in this journal's own segment
+        for (Path claimed : claimedSegments) {
+            try {
+                Files.deleteIfExists(claimed);
+            } catch (IOException e) {
+                log.fine("Failed to delete claimed journal segment " + claimed + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void readSegment(Path file, Map<String, UploadJob> pending) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= 8) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    // Torn write of the last record before a crash
+                    break;
+                }
+                JournalRecord record = gson.fromJson(new String(payload, StandardCharsets.UTF_8), JournalRecord.class);
+                if ("enqueue".equals(record.op) && record.job != null) {
+                    pending.put(record.id, record.job);
+                } else if ("complete".equals(record.op)) {
+                    pending.remove(record.id);
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            log.warning("Failed to read journal segment " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long ownerPid(Path segmentFile) {
+        return segmentOrder(segmentFile)[0];
+    }
+
+    /**
+     * @return the owner PID, journal instance and segment index from {@code journal-<pid>-<instance>-<index>.log},
+     *         -1 for the parts that cannot be parsed
+     */
+    private static long[] segmentOrder(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        String[] parts = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).split("-");
+        long[] order = {-1, -1, -1};
+        for (int i = 0; i < Math.min(parts.length, order.length); i++) {
+            try {
+                order[i] = Long.parseLong(parts[i]);
+            } catch (NumberFormatException e) {
+                // Not written by a journal, sorted first
+            }
+        }
+        return order;
+    }
+
+    private static int compareSegmentOrder(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int compared = Long.compare(a[i], b[i]);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return 0;
+    }
+
+    private void createDirectories() throws IOException {
+        Files.createDirectories(blobDirectory);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwx------"));
+        }
+    }
+
+    private static class JournalRecord {
+        String op;
+        String id;
+        UploadJob job;
+
+        JournalRecord(String op, String id, UploadJob job) {
+            this.op = op;
+            this.id = id;
+            this.job = job;
+        }
+    }
+
+    /**
+     * A journaled screenshot chunk upload.
+     */
+    public static class UploadJob {
+        private String id;
+        private String groupKey;
+        private String file;
+        private UploadSnapshotRequest request;
+        private BuildData buildData;
+
+        public String getId() {
+            return id;
+        }
+
+        public String getGroupKey() {
+            return groupKey;
+        }
+
+        public File getFile() {
+            return new File(file);
+        }
+
+        public UploadSnapshotRequest getRequest() {
+            return request;
+        }
+
+        public BuildData getBuildData() {
+            return buildData;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.lambdatest;
+
+import io.github.lambdatest.utils.ByteBudget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs parallel sessions against one shared {@link SmartUIAppSnapshot}, all taking a screenshot with the
+ * same name, and checks that every session uploads its own screenshot with its own request.
+ */
+public class SmartUIAppSnapshotConcurrencyTest {
+    private static final int SESSIONS = 8;
+    private static final String SCREENSHOT_NAME = "home screen";
+    private static final String HOST_PROPERTY = "SMARTUI_CLIENT_API_URL";
+    private static final Pattern SESSION_MARKER = Pattern.compile("png-of-session-\\d+");
+
+    private StandInSmartUIServer server;
+    private String previousHost;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StandInSmartUIServer();
+        // Keeps the uploads of the sessions in flight together
+        server.setUploadDelayMs(200);
+        previousHost = System.getProperty(HOST_PROPERTY);
+        System.setProperty(HOST_PROPERTY, server.getUrl());
+    }
+
+    @After
+    public void tearDown() {
+        if (previousHost != null) {
+            System.setProperty(HOST_PROPERTY, previousHost);
+        } else {
+            System.clearProperty(HOST_PROPERTY);
+        }
+        server.close();
+    }
+
+    @Test
+    public void parallelSessionsUploadTheirOwnScreenshotsUnderTheSameName() throws Exception {
+        Set<String> workDirectoriesBefore = listWorkDirectories();
+        SmartUIAppSnapshot snapshot = new SmartUIAppSnapshot();
+        Map<String, String> startOptions = new HashMap<>();
+        startOptions.put("projectToken", "stand-in-token");
+        snapshot.start(startOptions);
+
+        ExecutorService sessions = Executors.newFixedThreadPool(SESSIONS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < SESSIONS; i++) {
+                WebDriver driver = fakeDriver("png-of-session-" + i);
+                results.add(sessions.submit(() -> {
+                    go.await();
+                    Map<String, String> options = new HashMap<>();
+                    options.put("deviceName", "Pixel 8");
+                    options.put("platform", "Android");
+                    snapshot.smartuiAppSnapshot(driver, SCREENSHOT_NAME, options);
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+        snapshot.stop();
+
+        List<StandInSmartUIServer.Upload> uploads = server.getUploads();
+        assertEquals(SESSIONS, uploads.size());
+        Set<String> markers = new HashSet<>();
+        Set<String> screenshotHashes = new HashSet<>();
+        for (StandInSmartUIServer.Upload upload : uploads) {
+            assertEquals(SCREENSHOT_NAME, upload.getField("screenshotName"));
+            assertEquals(StandInSmartUIServer.BUILD_ID, upload.getField("buildId"));
+            screenshotHashes.add(upload.getField("screenshotHash"));
+            Matcher marker = SESSION_MARKER.matcher(upload.getBody());
+            assertTrue("upload without a session's screenshot", marker.find());
+            markers.add(marker.group());
+        }
+        assertEquals("every session uploads its own screenshot", SESSIONS, markers.size());
+        assertEquals("every session uploads with its own request", SESSIONS, screenshotHashes.size());
+        assertTrue("uploads of parallel sessions are not serialized", server.getMaxInFlightUploads() > 1);
+        assertEquals("work directories are removed", workDirectoriesBefore, listWorkDirectories());
+        assertEquals("captured screenshots are released from the byte budget", 0,
+                ByteBudget.getInstance().getInFlight(ByteBudget.SCREENSHOT));
+    }
+
+    private static Set<String> listWorkDirectories() {
+        Set<String> names = new HashSet<>();
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("smartui-home_screen-")) {
+                    names.add(file.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Driver of one session, whose screenshots contain {@code marker}.
+     */
+    private static WebDriver fakeDriver(String marker) {
+        WebDriver.Window window = proxy(WebDriver.Window.class,
+                (self, method, args) -> "getSize".equals(method.getName()) ? new Dimension(1080, 2400) : null);
+        WebDriver.Options options = proxy(WebDriver.Options.class,
+                (self, method, args) -> "window".equals(method.getName()) ? window : null);
+        return (WebDriver) Proxy.newProxyInstance(SmartUIAppSnapshotConcurrencyTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, TakesScreenshot.class}, (self, method, args) -> {
+                    switch (method.getName()) {
+                        case "manage":
+                            return options;
+                        case "getScreenshotAs":
+                            File screenshot = Files.createTempFile("stand-in-", ".png").toFile();
+                            screenshot.deleteOnExit();
+                            Files.write(screenshot.toPath(), marker.getBytes(StandardCharsets.US_ASCII));
+                            return screenshot;
+                        case "getPageSource":
+                            return "";
+                        case "hashCode":
+                            return System.identityHashCode(self);
+                        case "equals":
+                            return self == args[0];
+                        case "toString":
+                            return "fake driver of " + marker;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SmartUIAppSnapshotConcurrencyTest.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+}
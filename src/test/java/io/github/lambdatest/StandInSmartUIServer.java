@@ -0,0 +1,206 @@
+package io.github.lambdatest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the SmartUI API, serving the routes the SDK calls to verify a token, create and
+ * finalize a build and upload screenshots.
+ *
+ * <p>Screenshot uploads are recorded with their body and arrival time. Responses to them can be
+ * delayed, and throttling responses can be queued to be returned before the next uploads succeed.
+ */
+public class StandInSmartUIServer implements AutoCloseable {
+    public static final String BUILD_ID = "stand-in-build";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Upload> uploads = Collections.synchronizedList(new ArrayList<>());
+    private final Deque<Throttle> throttles = new ArrayDeque<>();
+    private final AtomicInteger inFlightUploads = new AtomicInteger();
+    private final AtomicInteger maxInFlightUploads = new AtomicInteger();
+    private volatile long uploadDelayMs;
+
+    public StandInSmartUIServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Delays every screenshot upload response, so that concurrent uploads overlap.
+     */
+    public void setUploadDelayMs(long uploadDelayMs) {
+        this.uploadDelayMs = uploadDelayMs;
+    }
+
+    /**
+     * Answers the next {@code times} screenshot uploads with {@code status}.
+     * @param retryAfter value of the {@code Retry-After} header, or null to send none
+     */
+    public synchronized void throttleNext(int times, int status, String retryAfter) {
+        for (int i = 0; i < times; i++) {
+            throttles.add(new Throttle(status, retryAfter));
+        }
+    }
+
+    /**
+     * @return every screenshot upload received, throttled ones included, in arrival order
+     */
+    public List<Upload> getUploads() {
+        synchronized (uploads) {
+            return new ArrayList<>(uploads);
+        }
+    }
+
+    public int getMaxInFlightUploads() {
+        return maxInFlightUploads.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = readBody(exchange.getRequestBody());
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/token/verify")) {
+                respond(exchange, 200, "{\"status\":\"Success\"}");
+            } else if (path.endsWith("/build") && "POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 200, "{\"data\":{\"buildId\":\"" + BUILD_ID + "\",\"buildName\":\"stand-in\",\"baseline\":false}}");
+            } else if (path.endsWith("/build")) {
+                respond(exchange, 200, "{\"status\":\"success\"}");
+            } else if (path.endsWith("/screenshot")) {
+                handleUpload(exchange, body);
+            } else {
+                respond(exchange, 404, "{}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleUpload(HttpExchange exchange, byte[] body) throws IOException {
+        int inFlight = inFlightUploads.incrementAndGet();
+        maxInFlightUploads.accumulateAndGet(inFlight, Math::max);
+        try {
+            Throttle throttle;
+            synchronized (this) {
+                throttle = throttles.poll();
+            }
+            uploads.add(new Upload(System.nanoTime(), new String(body, StandardCharsets.ISO_8859_1),
+                    throttle != null ? throttle.status : 200));
+            if (throttle != null) {
+                if (throttle.retryAfter != null) {
+                    exchange.getResponseHeaders().add("Retry-After", throttle.retryAfter);
+                }
+                respond(exchange, throttle.status, "{\"error\":\"throttled\"}");
+                return;
+            }
+            if (uploadDelayMs > 0) {
+                Thread.sleep(uploadDelayMs);
+            }
+            respond(exchange, 200, "{\"status\":\"success\",\"data\":{}}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, "{}");
+        } finally {
+            inFlightUploads.decrementAndGet();
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A screenshot upload as received by the stand-in.
+     */
+    public static final class Upload {
+        private final long receivedAtNanos;
+        private final String body;
+        private final int status;
+
+        Upload(long receivedAtNanos, String body, int status) {
+            this.receivedAtNanos = receivedAtNanos;
+            this.body = body;
+            this.status = status;
+        }
+
+        public long getReceivedAtNanos() {
+            return receivedAtNanos;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * @return the status the stand-in answered with
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the value of a text field of the multipart body, or null if it has none
+         */
+        public String getField(String name) {
+            String marker = "name=\"" + name + "\"";
+            int start = body.indexOf(marker);
+            if (start < 0) {
+                return null;
+            }
+            start = body.indexOf("\r\n\r\n", start) + 4;
+            return body.substring(start, body.indexOf("\r\n", start));
+        }
+    }
+
+    private static final class Throttle {
+        final int status;
+        final String retryAfter;
+
+        Throttle(int status, String retryAfter) {
+            this.status = status;
+            this.retryAfter = retryAfter;
+        }
+    }
+}
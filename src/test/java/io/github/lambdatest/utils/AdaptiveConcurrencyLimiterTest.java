@@ -0,0 +1,162 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.StandInSmartUIServer;
+import io.github.lambdatest.exceptions.ThrottledException;
+import io.github.lambdatest.models.BuildData;
+import io.github.lambdatest.models.UploadSnapshotRequest;
+import org.apache.http.client.utils.DateUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Drives uploads against a stand-in server that answers with 429 and 503 and a {@code Retry-After},
+ * checking how they are reported and how {@link AdaptiveConcurrencyLimiter} adapts to them.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+    private static final String HOST_PROPERTY = "SMARTUI_CLIENT_API_URL";
+
+    private StandInSmartUIServer server;
+    private String previousHost;
+    private HttpClientUtil client;
+    private File screenshot;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StandInSmartUIServer();
+        previousHost = System.getProperty(HOST_PROPERTY);
+        System.setProperty(HOST_PROPERTY, server.getUrl());
+        client = new HttpClientUtil();
+        screenshot = Files.createTempFile("stand-in-", ".png").toFile();
+        Files.write(screenshot.toPath(), "png".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @After
+    public void tearDown() {
+        if (previousHost != null) {
+            System.setProperty(HOST_PROPERTY, previousHost);
+        } else {
+            System.clearProperty(HOST_PROPERTY);
+        }
+        server.close();
+        screenshot.delete();
+    }
+
+    @Test
+    public void throttlingResponsesAreReportedWithTheirRetryAfter() throws Exception {
+        server.throttleNext(1, 429, "2");
+        server.throttleNext(1, 503, DateUtils.formatDate(new Date(System.currentTimeMillis() + 5000)));
+        server.throttleNext(1, 503, null);
+
+        ThrottledException seconds = expectThrottled();
+        assertEquals(429, seconds.getStatusCode());
+        assertEquals(2000, seconds.getRetryAfterMillis());
+
+        ThrottledException date = expectThrottled();
+        assertEquals(503, date.getStatusCode());
+        assertTrue("Retry-After date read as " + date.getRetryAfterMillis() + " ms",
+                date.getRetryAfterMillis() > 3000 && date.getRetryAfterMillis() <= 5000);
+
+        ThrottledException none = expectThrottled();
+        assertEquals(503, none.getStatusCode());
+        assertEquals(-1, none.getRetryAfterMillis());
+    }
+
+    @Test
+    public void limitGrowsWithSuccessesAndHalvesWhenThrottled() throws Exception {
+        // Keeps the latency of every upload close to the baseline, so successes only grow the limit
+        server.setUploadDelayMs(50);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 16);
+        for (int i = 0; i < 20; i++) {
+            upload(limiter);
+        }
+        int grown = limiter.getLimit();
+        assertTrue("limit grew to " + grown, grown > 4);
+
+        server.throttleNext(1, 429, "1");
+        try {
+            upload(limiter);
+            fail("upload was not throttled");
+        } catch (ThrottledException e) {
+            // Expected
+        }
+        assertEquals(grown / 2, limiter.getLimit());
+
+        long startedAt = System.nanoTime();
+        limiter.acquire().dropped();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        assertTrue("next upload admitted after " + waitedMs + " ms", waitedMs >= 900);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void throttledUploadIsRetriedOnceTheRetryAfterIsOver() throws Exception {
+        server.throttleNext(1, 503, "1");
+
+        new SmartUIUtil().uploadScreenshot(screenshot, request(), build());
+
+        List<StandInSmartUIServer.Upload> uploads = server.getUploads();
+        assertEquals(2, uploads.size());
+        assertEquals(503, uploads.get(0).getStatus());
+        assertEquals(200, uploads.get(1).getStatus());
+        long gapMs = TimeUnit.NANOSECONDS.toMillis(uploads.get(1).getReceivedAtNanos() - uploads.get(0).getReceivedAtNanos());
+        assertTrue("retried after " + gapMs + " ms", gapMs >= 900);
+    }
+
+    private void upload(AdaptiveConcurrencyLimiter limiter) throws Exception {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        try {
+            uploadOnce();
+            permit.success();
+        } catch (ThrottledException e) {
+            permit.throttled(e.getRetryAfterMillis());
+            throw e;
+        }
+    }
+
+    private ThrottledException expectThrottled() throws Exception {
+        try {
+            uploadOnce();
+        } catch (ThrottledException e) {
+            return e;
+        }
+        throw new AssertionError("upload was not throttled");
+    }
+
+    private void uploadOnce() throws Exception {
+        client.uploadScreenshot(server.getUrl() + "/screenshot", screenshot, ScreenshotUploadSpec.of(request(), build()),
+                null, null);
+    }
+
+    private static UploadSnapshotRequest request() {
+        UploadSnapshotRequest request = new UploadSnapshotRequest();
+        request.setProjectToken("stand-in-token");
+        request.setScreenshotName("throttled");
+        request.setScreenshotHash("hash");
+        request.setBrowserName("chrome");
+        request.setDeviceName("Pixel 8 Android");
+        request.setOs("Android");
+        request.setViewport("1080x2400");
+        request.setUploadChunk("false");
+        return request;
+    }
+
+    private static BuildData build() {
+        BuildData build = new BuildData();
+        build.setBuildId(StandInSmartUIServer.BUILD_ID);
+        build.setName("stand-in");
+        build.setBaseline(false);
+        return build;
+    }
+}
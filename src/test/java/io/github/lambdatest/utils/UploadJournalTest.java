@@ -0,0 +1,219 @@
+package io.github.lambdatest.utils;
+
+import io.github.lambdatest.models.BuildData;
+import io.github.lambdatest.models.UploadSnapshotRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Kills journals with pending jobs, by closing them and handing their segments to a process that is no
+ * longer running, and checks what the next journal opened on the directory replays.
+ */
+public class UploadJournalTest {
+    private static final long SLOW_BACKOFF_MS = 60000;
+
+    private Path directory;
+    private final List<UploadJournal> journals = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("smartui-journal-test");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        journals.forEach(UploadJournal::close);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void replayedJournalSkipsJobsCompletedInLaterSegments() throws Exception {
+        // Small segments spread the records over more than ten segments, and holding the uploads until
+        // every job is enqueued puts their complete records in later segments than their enqueue records
+        CountDownLatch enqueued = new CountDownLatch(1);
+        List<Path> uploadedFiles = Collections.synchronizedList(new ArrayList<>());
+        UploadJournal killed = open(job -> {
+            enqueued.await();
+            if (!job.getRequest().getScreenshotName().startsWith("uploaded")) {
+                throw new IOException("server unreachable");
+            }
+            Path file = job.getFile().toPath();
+            Files.copy(file, file.resolveSibling(file.getFileName() + ".kept"));
+            uploadedFiles.add(file);
+        }, 1024, SLOW_BACKOFF_MS);
+        for (int i = 0; i < 30; i++) {
+            enqueue(killed, "uploaded-" + i, "group-" + i, null);
+        }
+        enqueue(killed, "pending", "group-pending", null);
+        enqueued.countDown();
+        waitFor(() -> killed.getCompletedCount() == 30);
+        kill(killed);
+        // As if killed between recording the uploads as complete and deleting their files
+        for (Path file : uploadedFiles) {
+            Files.move(file.resolveSibling(file.getFileName() + ".kept"), file);
+        }
+        assertTrue("records span several segments", listSegments().size() > 10);
+
+        List<String> replayed = Collections.synchronizedList(new ArrayList<>());
+        UploadJournal next = open(job -> replayed.add(job.getRequest().getScreenshotName()), 1024, 1);
+        assertTrue(next.awaitDrained(10000));
+        assertEquals(Collections.singletonList("pending"), replayed);
+    }
+
+    @Test
+    public void tornLastRecordIsIgnoredOnReplay() throws Exception {
+        UploadJournal killed = open(job -> {
+            throw new IOException("server unreachable");
+        }, 64 * 1024, SLOW_BACKOFF_MS);
+        enqueue(killed, "first", "group-first", null);
+        enqueue(killed, "torn", "group-torn", null);
+        kill(killed);
+        List<Path> segments = listSegments();
+        assertEquals(1, segments.size());
+        tearLastRecord(segments.get(0));
+
+        List<String> replayed = Collections.synchronizedList(new ArrayList<>());
+        UploadJournal next = open(job -> replayed.add(job.getRequest().getScreenshotName()), 64 * 1024, 1);
+        assertTrue(next.awaitDrained(10000));
+        assertEquals(Collections.singletonList("first"), replayed);
+    }
+
+    @Test
+    public void chunksAfterAFailedChunkAreHeldAndReplayedInOrder() throws Exception {
+        List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+        UploadJournal killed = open(job -> {
+            if ("chunk-1".equals(job.getRequest().getScreenshotName())) {
+                throw new IOException("chunk rejected");
+            }
+            uploaded.add(job.getRequest().getScreenshotName());
+        }, 64 * 1024, 1);
+        enqueue(killed, "chunk-1", "chunked", "false");
+        enqueue(killed, "chunk-2", "chunked", "false");
+        enqueue(killed, "chunk-3", "chunked", "true");
+        enqueue(killed, "single", "other", null);
+        assertTrue(killed.awaitDrained(10000));
+        assertEquals(Collections.singletonList("single"), uploaded);
+        assertEquals(3, killed.getFailedCount());
+        assertEquals(1, killed.getCompletedCount());
+        kill(killed);
+
+        List<String> replayed = Collections.synchronizedList(new ArrayList<>());
+        UploadJournal next = open(job -> replayed.add(job.getRequest().getScreenshotName()), 64 * 1024, 1);
+        assertTrue(next.awaitDrained(10000));
+        assertEquals(Arrays.asList("chunk-1", "chunk-2", "chunk-3"), replayed);
+    }
+
+    private UploadJournal open(UploadJournal.Uploader uploader, int segmentSize, long initialBackoffMs) throws IOException {
+        // A single drainer keeps the order of the uploads deterministic
+        UploadJournal journal = UploadJournal.open(directory, uploader, 1, segmentSize, initialBackoffMs);
+        journals.add(journal);
+        return journal;
+    }
+
+    private static void enqueue(UploadJournal journal, String name, String groupKey, String isLastChunk) throws IOException {
+        File screenshot = Files.createTempFile("journal-test-", ".png").toFile();
+        Files.write(screenshot.toPath(), name.getBytes(StandardCharsets.US_ASCII));
+        UploadSnapshotRequest request = new UploadSnapshotRequest();
+        request.setScreenshotName(name);
+        request.setIsLastChunk(isLastChunk);
+        BuildData build = new BuildData();
+        build.setBuildId("build");
+        journal.enqueue(groupKey, screenshot, request, build);
+    }
+
+    /**
+     * Closes the journal with its jobs pending and hands its segments to a process that exited, as if
+     * the JVM had been killed.
+     */
+    private void kill(UploadJournal journal) throws Exception {
+        journal.close();
+        Process exited = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-version")
+                .redirectErrorStream(true).start();
+        exited.getInputStream().close();
+        exited.waitFor();
+        String ownPrefix = "journal-" + ProcessHandle.current().pid() + "-";
+        Path handOver = Files.createTempDirectory(directory, "hand-over");
+        List<Path> segments = new ArrayList<>();
+        for (Path segment : listSegments()) {
+            String name = segment.getFileName().toString();
+            if (name.startsWith(ownPrefix)) {
+                segments.add(Files.move(segment, handOver.resolve("journal-" + exited.pid() + "-" + name.substring(ownPrefix.length()))));
+            }
+        }
+        // Newest first, so that a directory listed in creation order does not list them in the order written
+        segments.sort(Comparator.comparingLong(UploadJournalTest::segmentIndex).reversed());
+        for (Path segment : segments) {
+            Files.move(segment, directory.resolve(segment.getFileName()));
+        }
+        Files.delete(handOver);
+    }
+
+    private static long segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('-') + 1, name.length() - ".log".length()));
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.log")) {
+            stream.forEach(segments::add);
+        }
+        return segments.stream().sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Flips a byte in the payload of the last record of the segment, as left by a write torn by a crash.
+     */
+    private static void tearLastRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int last = -1;
+            while (buffer.remaining() >= 8) {
+                int position = buffer.position();
+                int length = buffer.getInt();
+                if (length <= 0) {
+                    break;
+                }
+                buffer.position(buffer.position() + 4 + length);
+                last = position;
+            }
+            assertTrue("segment has records", last >= 0);
+            int torn = last + 8 + buffer.getInt(last) - 1;
+            buffer.put(torn, (byte) (buffer.get(torn) ^ 0xff));
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("condition not met within 10 s", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}